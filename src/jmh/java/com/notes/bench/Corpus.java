@@ -0,0 +1,84 @@
+package com.notes.bench;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.notes.model.Note;
+import com.notes.storage.LocalStorage;
+import com.notes.util.Clock;
+
+// Deterministic notes for the benchmarks: the same size always gives the same corpus
+final class Corpus {
+
+    static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+    static final Clock CLOCK = () -> EPOCH.plusSeconds(400L * 24 * 3600);
+
+    private static final String[] WORDS = {
+            "meeting", "project", "budget", "draft", "review", "plan", "travel", "idea", "release",
+            "customer", "invoice", "recipe", "garden", "book", "music", "training", "design", "bug",
+            "deadline", "report", "summary", "agenda", "notes", "call", "email", "weekly", "monthly",
+            "launch", "roadmap", "research", "holiday", "shopping", "health", "family", "school"
+    };
+
+    private Corpus() {
+    }
+
+    static List<Note> notes(int size) {
+        Random random = new Random(size);
+        List<Note> notes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Instant created = EPOCH.plusSeconds(random.nextInt(365 * 24 * 3600));
+            Instant updated = created.plusSeconds(random.nextInt(30 * 24 * 3600));
+            notes.add(new Note("note-" + i, words(random, 2 + random.nextInt(4)),
+                    words(random, 10 + random.nextInt(60)), created, updated, null));
+        }
+        return notes;
+    }
+
+    static String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    // The map NoteRepository keeps under its storage key
+    static Map<String, Note> byId(List<Note> notes) {
+        Map<String, Note> map = new LinkedHashMap<>();
+        for (Note note : notes) {
+            map.put(note.getId(), note);
+        }
+        return map;
+    }
+
+    // Storage that only keeps the value in memory, so repository benchmarks leave out disk I/O
+    static LocalStorage memoryStorage(List<Note> notes) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("notes", byId(notes));
+        return new LocalStorage() {
+            @Override
+            public Object read(String key) {
+                return values.get(key);
+            }
+
+            @Override
+            public void write(String key, Object value) {
+                values.put(key, value);
+            }
+
+            @Override
+            public void delete(String key) {
+                values.remove(key);
+            }
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package com.notes.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.notes.model.Note;
+import com.notes.repo.NoteRepository;
+
+// NoteRepository over in-memory storage: the repository's own bookkeeping, without disk I/O
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private NoteRepository repository;
+    private List<Note> notes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        notes = Corpus.notes(size);
+        repository = new NoteRepository(Corpus.memoryStorage(notes), Corpus.CLOCK);
+    }
+
+    @Benchmark
+    public Note create() {
+        return repository.createNote("benchmark", "body");
+    }
+
+    @Benchmark
+    public Note save() {
+        Note note = notes.get(next++ % notes.size());
+        note.updateContent("edited " + next, Corpus.CLOCK.now());
+        repository.save(note);
+        return note;
+    }
+
+    @Benchmark
+    public List<Note> list() {
+        return repository.listNotes();
+    }
+}
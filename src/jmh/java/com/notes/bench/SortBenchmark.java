@@ -0,0 +1,58 @@
+package com.notes.bench;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.notes.model.Note;
+import com.notes.sort.SortOrder;
+import com.notes.sort.SortPreference;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"LastModified", "CreatedDate", "TitleAZ"})
+    public SortOrder order;
+
+    private SortPreference preference;
+    private List<Note> notes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        preference = new SortPreference(Locale.ENGLISH);
+        preference.setSortOrder(order);
+        notes = Corpus.notes(size);
+    }
+
+    @Benchmark
+    public List<Note> apply() {
+        return preference.apply(notes);
+    }
+
+    // one screen's worth, which takes the top-k path
+    @Benchmark
+    public List<Note> applyFirstPage() {
+        return preference.apply(notes, 50);
+    }
+}
@@ -0,0 +1,62 @@
+package com.notes.bench;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.notes.model.Note;
+import com.notes.repo.Trash;
+
+// purgeExpired over a trash where every other note has passed the retention period.
+// Trash.add and purgeExpired are linear per note, so filling a 1M trash takes too long to run.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TrashBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Note> notes;
+    private Trash trash;
+
+    @Setup(Level.Trial)
+    public void createNotes() {
+        notes = Corpus.notes(size);
+        Instant now = Corpus.CLOCK.now();
+        for (int i = 0; i < notes.size(); i++) {
+            notes.get(i).markDeleted(now.minusSeconds((i % 2 == 0 ? 40L : 5L) * 24 * 3600));
+        }
+    }
+
+    // purging empties the trash, so each measured call gets a freshly filled one
+    @Setup(Level.Iteration)
+    public void fillTrash() {
+        trash = new Trash(30, Corpus.CLOCK);
+        for (Note note : notes) {
+            trash.add(note);
+        }
+    }
+
+    @Benchmark
+    public Trash purgeExpired() {
+        trash.purgeExpired();
+        return trash;
+    }
+}
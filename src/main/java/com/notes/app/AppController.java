@@ -1,21 +1,59 @@
 package com.notes.app;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+import com.notes.metrics.LatencyHistogram;
+import com.notes.metrics.MetricsRegistry;
+import com.notes.model.BodyEdits;
 import com.notes.model.Note;
 import com.notes.model.NoteMemento;
+import com.notes.model.TextEdit;
+import com.notes.repo.NoteChangeListener;
 import com.notes.repo.NoteRepository;
 import com.notes.repo.Trash;
+import com.notes.search.QueryCache;
+import com.notes.search.SearchHit;
 import com.notes.search.SearchIndex;
 import com.notes.sort.SortOrder;
 import com.notes.sort.SortPreference;
+import com.notes.sort.SortedNoteViews;
 
 // Facade: AppController.java central point to cooridnate
 public class AppController {
+    private static final System.Logger LOG = System.getLogger(AppController.class.getName());
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    private static final LatencyHistogram NEW_NOTE = METRICS.histogram("controller.newNote");
+    private static final LatencyHistogram EDIT_NOTE = METRICS.histogram("controller.editNote");
+    private static final LatencyHistogram DELETE_NOTE = METRICS.histogram("controller.deleteNote");
+    private static final LatencyHistogram RESTORE_NOTE = METRICS.histogram("controller.restoreNote");
+    private static final LatencyHistogram EMPTY_TRASH = METRICS.histogram("controller.emptyTrash");
+    private static final LatencyHistogram LIST_NOTES = METRICS.histogram("controller.listNotes");
+    private static final LatencyHistogram SEARCH = METRICS.histogram("controller.search");
+
     private final NoteRepository noteRepository;
     private final Trash trash;
     private final SearchIndex searchIndex;
     private final SortPreference sortPreference;
+    private final QueryCache queryCache = new QueryCache();
+    // every SortOrder kept sorted as notes change, so plain listings need no sort
+    private final SortedNoteViews sortedViews;
+    // notes must carry all of these tags to be listed; empty means no filter
+    private volatile Set<String> tagFilter = Set.of();
+
+    // index version after this controller last brought it up to date; -1 before the first time
+    private long indexVersion = -1;
+    // notes changed since then by id, null for purged ones; applied before the next search
+    private final Map<String, Note> unindexed = new LinkedHashMap<>();
 
     public AppController(NoteRepository noteRepository,
                          Trash trash,
@@ -25,61 +63,147 @@ public class AppController {
         this.trash = trash;
         this.searchIndex = searchIndex;
         this.sortPreference = sortPreference;
+        this.sortedViews = new SortedNoteViews(sortPreference);
+        noteRepository.addListener(sortedViews);
+        noteRepository.addListener(new NoteChangeListener() {
+            @Override
+            public void noteChanged(Note note) {
+                synchronized (unindexed) {
+                    unindexed.put(note.getId(), note);
+                }
+            }
+
+            @Override
+            public void notePurged(String noteId) {
+                synchronized (unindexed) {
+                    unindexed.put(noteId, null);
+                }
+            }
+        });
+        METRICS.gauge("search.cache.hitRate", queryCache::getHitRate);
+        METRICS.gauge("search.cache.size", queryCache::size);
     }
 
     public Note newNote() {
-        return noteRepository.createNote("", "");
+        long start = System.nanoTime();
+        Note note = noteRepository.createNote("", "");
+        NEW_NOTE.recordSince(start);
+        return note;
     }
 
     public Note openNote(String id) {
         return noteRepository.getNoteById(id);
     }
 
-    public void editNote(String id, String title, String body) {
+    // Returns true if anything changed and was saved
+    public boolean editNote(String id, String title, String body) {
+        long start = System.nanoTime();
+        boolean saved = applyEdit(id, title, body, null, null);
+        EDIT_NOTE.recordSince(start);
+        return saved;
+    }
+
+    public boolean editNote(String id, String title, CharSequence body, Collection<String> tags) {
+        return editNote(id, title, body, tags, null);
+    }
+
+    // bodyEdits: the editor's changes to the body and the revision of the body they were
+    // typed against, or null if unknown. When that is still the stored revision they are
+    // applied as they are, which costs the size of the edits; otherwise body is compared
+    // with the stored one.
+    public boolean editNote(String id, String title, CharSequence body, Collection<String> tags,
+                            BodyEdits bodyEdits) {
+        long start = System.nanoTime();
+        boolean saved = applyEdit(id, title, body, tags == null ? Set.of() : Note.normalizeTags(tags), bodyEdits);
+        EDIT_NOTE.recordSince(start);
+        return saved;
+    }
+
+    // Only fields that differ are updated, all with one timestamp from the clock, and an
+    // edit that changes nothing is not saved (so it does not move the note in LastModified)
+    private boolean applyEdit(String id, String title, CharSequence body, Set<String> tags, BodyEdits bodyEdits) {
         Note note = noteRepository.getNoteById(id);
         if (note == null) {
-            return;
+            return false;
+        }
+        int storedLength = note.getText() == null ? -1 : note.getText().length();
+        boolean incremental = bodyEdits != null && body != null && storedLength >= 0
+                && bodyEdits.fits(note.getRevision(), storedLength, body.length());
+        boolean titleChanged = !Objects.equals(note.getTitle(), title);
+        boolean bodyChanged = incremental ? !bodyEdits.edits().isEmpty() : !note.hasContent(body);
+        boolean tagsChanged = tags != null && !note.getTags().equals(tags);
+        if (!titleChanged && !bodyChanged && !tagsChanged) {
+            return false;
+        }
+
+        Instant now = noteRepository.getClock().now();
+        if (titleChanged) {
+            note.updateTitle(title, now);
+        }
+        if (bodyChanged && incremental) {
+            for (TextEdit edit : bodyEdits.edits()) {
+                note.editContent(edit.start(), edit.end(), edit.text(), now);
+            }
+        } else if (bodyChanged) {
+            note.updateContent(body, now);
+        }
+        if (tagsChanged) {
+            note.updateTags(tags, now);
         }
-        note.updateTitle(title);
-        note.updateContent(body);
         noteRepository.save(note);
+        return true;
     }
 
     public void deleteNote(String id) {
-        Note note = noteRepository.getNoteById(id);
-        if (note == null) {
-            return;
-        }
-        noteRepository.moveToTrash(id);
-        if (note.getDeletedAt() != null) {
-            trash.add(note);
+        long start = System.nanoTime();
+        try {
+            Note note = noteRepository.getNoteById(id);
+            if (note == null) {
+                return;
+            }
+            noteRepository.moveToTrash(id);
+            if (note.getDeletedAt() != null) {
+                trash.add(note);
+            }
+        } finally {
+            DELETE_NOTE.recordSince(start);
         }
     }
 
     public void restoreNote(String id) {
-        Note note = noteRepository.getNoteById(id);
-        if (note == null) {
-            return;
-        }
-        NoteMemento snapshot = trash.getSnapshot(id);
-        noteRepository.restoreFromTrash(id);
-        if (snapshot != null) {
-            note.restore(snapshot);
-            noteRepository.save(note);
+        long start = System.nanoTime();
+        try {
+            Note note = noteRepository.getNoteById(id);
+            if (note == null) {
+                return;
+            }
+            NoteMemento snapshot = trash.getSnapshot(id);
+            noteRepository.restoreFromTrash(id);
+            if (snapshot != null) {
+                note.restore(snapshot);
+                noteRepository.save(note);
+            }
+            trash.remove(note);
+        } finally {
+            RESTORE_NOTE.recordSince(start);
         }
-        trash.remove(note);
     }
 
     public void emptyTrash(List<String> ids) {
-        if (ids == null) {
-            return;
-        }
-        for (String id : ids) {
-            Note note = noteRepository.getNoteById(id);
-            if (note != null) {
-                trash.remove(note);
+        long start = System.nanoTime();
+        try {
+            if (ids == null) {
+                return;
             }
-            noteRepository.purgeDeletedNotes(id);
+            for (String id : ids) {
+                Note note = noteRepository.getNoteById(id);
+                if (note != null) {
+                    trash.remove(note);
+                }
+                noteRepository.purgeDeletedNotes(id);
+            }
+        } finally {
+            EMPTY_TRASH.recordSince(start);
         }
     }
 
@@ -87,26 +211,163 @@ public class AppController {
         sortPreference.setSortOrder(sortOrder);
     }
 
+    // Locale whose collation rules TitleAZ follows
+    public void setSortLocale(Locale locale) {
+        sortPreference.setLocale(locale);
+        sortedViews.rebuild();
+    }
+
+    public void setTagFilter(Collection<String> tags) {
+        tagFilter = Set.copyOf(Note.normalizeTags(tags));
+    }
+
+    public Set<String> getTagFilter() {
+        return tagFilter;
+    }
+
+    // Facet counts for active notes, straight from the repository's tag index
+    public Map<String, Integer> getTagCounts() {
+        return noteRepository.getTagCounts();
+    }
+
     public List<Note> getListOfNotes() {
-        return sortPreference.apply(noteRepository.listNotes());
+        long start = System.nanoTime();
+        List<Note> notes = tagFilter.isEmpty()
+                ? sortedViews.list(sortPreference.getSortOrder(), false)
+                : sortPreference.apply(noteRepository.listNotesWithTags(tagFilter));
+        LIST_NOTES.recordSince(start);
+        return notes;
+    }
+
+    // Only the first limit notes, e.g. one screen's worth
+    public List<Note> getListOfNotes(int limit) {
+        long start = System.nanoTime();
+        List<Note> notes = tagFilter.isEmpty()
+                ? sortedViews.page(sortPreference.getSortOrder(), false, limit)
+                : sortPreference.apply(noteRepository.listNotesWithTags(tagFilter), limit);
+        LIST_NOTES.recordSince(start);
+        return notes;
     }
 
     public List<Note> getDeletedNotes() {
-        return sortPreference.apply(noteRepository.listDeleted());
+        return sortedViews.list(sortPreference.getSortOrder(), true);
     }
 
     public List<Note> search(String query) {
+        long start = System.nanoTime();
+        List<Note> results = find(query);
+        SEARCH.recordSince(start);
+        return results;
+    }
+
+    private List<Note> find(String query) {
         // If query is empty → just return the normal sorted list
         if (query == null || query.isBlank()) {
             return getListOfNotes();
         }
 
-        // Index current notes
-        List<Note> allNotes = noteRepository.listNotes();
-        searchIndex.index(allNotes);
+        // Repeated query on an unchanged corpus → serve ids from the cache
+        long generation = noteRepository.getGeneration();
+        List<String> cachedIds = queryCache.get(generation, query);
+        if (cachedIds != null) {
+            return sortPreference.apply(withTagFilter(noteRepository.getNotesByIds(cachedIds)));
+        }
+
+        ensureIndexed();
 
         // Do the search and apply sorting
         List<Note> results = searchIndex.search(query);
-        return sortPreference.apply(results);
+        if (results.isEmpty() && !SearchIndex.isStructuredQuery(query)) {
+            // Nothing matched literally → retry tolerating typos
+            results = searchIndex.searchFuzzy(query);
+        }
+        queryCache.put(generation, query, results.stream().map(Note::getId).toList());
+        return sortPreference.apply(withTagFilter(results));
+    }
+
+    // Keeps only results carrying every filter tag (cached ids stay unfiltered)
+    private List<Note> withTagFilter(List<Note> notes) {
+        if (tagFilter.isEmpty()) {
+            return notes;
+        }
+        List<Note> result = new ArrayList<>(notes.size());
+        for (Note note : notes) {
+            if (note.getTags().containsAll(tagFilter)) {
+                result.add(note);
+            }
+        }
+        return result;
+    }
+
+    // Applies only the notes changed since the last search. The whole index is rebuilt the
+    // first time, or if someone else re-indexed the shared index in the meantime.
+    private synchronized void ensureIndexed() {
+        Map<String, Note> changes = drainUnindexed();
+        long version = indexVersion < 0 ? -1 : searchIndex.update(indexVersion, changes);
+        if (version < 0) {
+            searchIndex.index(noteRepository.listNotes());
+            version = searchIndex.getVersion();
+        }
+        indexVersion = version;
+    }
+
+    private Map<String, Note> drainUnindexed() {
+        synchronized (unindexed) {
+            Map<String, Note> changes = new LinkedHashMap<>(unindexed);
+            unindexed.clear();
+            return changes;
+        }
+    }
+
+    // Startup: load the persisted index and replay only notes changed since it was written
+    public synchronized int loadSearchIndex(Path file) {
+        // changes from here on are still queued afterwards; earlier ones are in listNotes()
+        drainUnindexed();
+        long generation = noteRepository.getGeneration();
+        int replayed = searchIndex.restore(file, noteRepository.listNotes(), generation);
+        indexVersion = searchIndex.getVersion();
+        return replayed;
+    }
+
+    public void saveSearchIndex(Path file) {
+        // every change up to this generation has been queued, so ensureIndexed() covers it
+        long generation = noteRepository.getGeneration();
+        ensureIndexed();
+        try {
+            searchIndex.writeTo(file, generation);
+        } catch (IOException e) {
+            // the index is only a cache, but a stale one makes every startup replay more notes
+            LOG.log(System.Logger.Level.WARNING, "Could not write search index " + file, e);
+        }
+    }
+
+    // Search-as-you-type: if query only extends previousQuery, filter the previous
+    // results instead of scanning the index again
+    public List<Note> refineSearch(String previousQuery, List<Note> previousResults, String query) {
+        if (previousQuery == null || previousQuery.isBlank() || previousResults == null
+                || query == null || query.isBlank()
+                || SearchIndex.isStructuredQuery(previousQuery) || SearchIndex.isStructuredQuery(query)
+                || !query.toLowerCase(Locale.ROOT).contains(previousQuery.toLowerCase(Locale.ROOT))) {
+            return search(query);
+        }
+        List<Note> refined = searchIndex.refine(query, previousResults);
+        if (refined.isEmpty()) {
+            // previous results may have come from the fuzzy fallback → search properly
+            return search(query);
+        }
+        return sortPreference.apply(withTagFilter(refined));
+    }
+
+    // Match offsets and a snippet for one result row, from the index's stored offsets
+    public SearchHit highlight(String query, Note note) {
+        return searchIndex.highlight(query, note);
+    }
+
+    public long getGeneration() {
+        return noteRepository.getGeneration();
+    }
+
+    public QueryCache getQueryCache() {
+        return queryCache;
     }
 }
\ No newline at end of file
@@ -0,0 +1,241 @@
+package com.notes.app;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.notes.model.BodyEdits;
+import com.notes.model.Note;
+import com.notes.search.SearchHit;
+import com.notes.sort.SortOrder;
+
+// Facade: the same operations as AppController, run on a small worker pool so storage
+// I/O and sorting stay off the UI thread. Writes to one note run in submission order,
+// reads wait for the writes submitted before them, and every future completes on
+// resultExecutor (Platform::runLater in the app).
+public class AsyncAppController implements AutoCloseable {
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final AppController controller;
+    private final Executor resultExecutor;
+    private final ExecutorService workers;
+
+    // last queued write per note id; removed once it finishes
+    private final Map<String, CompletableFuture<?>> pendingWrites = new HashMap<>();
+    // newest submitted edit per note (guarded by pendingWrites); older queued edits are skipped
+    private final Map<String, Long> latestEdits = new HashMap<>();
+    // body edits of submitted edits not applied yet, oldest first (guarded by pendingWrites);
+    // null once one of them came without edits
+    private final Map<String, BodyEdits> unappliedBodyEdits = new HashMap<>();
+    // revision each note had after its last edit here, which BodyEdits.FOLLOWS refers to
+    // (guarded by pendingWrites); absent while an edit runs and after one failed
+    private final Map<String, Long> editedRevisions = new HashMap<>();
+    private long editSequence;
+
+    public AsyncAppController(AppController controller, Executor resultExecutor) {
+        this(controller, resultExecutor, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public AsyncAppController(AppController controller, Executor resultExecutor, int threads) {
+        this(controller, resultExecutor, newWorkers(threads));
+    }
+
+    AsyncAppController(AppController controller, Executor resultExecutor, ExecutorService workers) {
+        this.controller = controller;
+        this.resultExecutor = resultExecutor;
+        this.workers = workers;
+    }
+
+    private static ExecutorService newWorkers(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "controller-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public AppController getController() {
+        return controller;
+    }
+
+    public CompletableFuture<Note> newNote() {
+        return read(controller::newNote);
+    }
+
+    public CompletableFuture<Void> editNote(String id, String title, String body, List<String> tags) {
+        return editNote(id, title, body, tags, null);
+    }
+
+    // Each edit carries the note's full state, so a burst of edits queued behind a slow
+    // save collapses into one: only the newest still waiting is applied, together with the
+    // body edits of the ones it replaced. Body edits based on BodyEdits.FOLLOWS apply to
+    // the revision the previous edit of the note left.
+    public CompletableFuture<Void> editNote(String id, String title, CharSequence body, List<String> tags,
+                                            BodyEdits bodyEdits) {
+        long edit;
+        synchronized (pendingWrites) {
+            edit = ++editSequence;
+            latestEdits.put(id, edit);
+            if (!unappliedBodyEdits.containsKey(id)) {
+                unappliedBodyEdits.put(id, bodyEdits);
+            } else if (bodyEdits == null) {
+                unappliedBodyEdits.put(id, null);
+            } else if (unappliedBodyEdits.get(id) != null) {
+                unappliedBodyEdits.put(id, unappliedBodyEdits.get(id).then(bodyEdits));
+            }
+        }
+        return write(List.of(id), () -> {
+            BodyEdits edits;
+            synchronized (pendingWrites) {
+                if (!Long.valueOf(edit).equals(latestEdits.get(id))) {
+                    return null;
+                }
+                latestEdits.remove(id);
+                edits = unappliedBodyEdits.remove(id);
+                Long previous = editedRevisions.remove(id);
+                if (edits != null && edits.baseRevision() == BodyEdits.FOLLOWS) {
+                    edits = previous == null ? null : new BodyEdits(previous, edits.edits());
+                }
+            }
+            controller.editNote(id, title, body, tags, edits);
+            Note note = controller.openNote(id);
+            if (note != null) {
+                synchronized (pendingWrites) {
+                    editedRevisions.put(id, note.getRevision());
+                }
+            }
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deleteNote(String id) {
+        return write(List.of(id), () -> {
+            controller.deleteNote(id);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> restoreNote(String id) {
+        return write(List.of(id), () -> {
+            controller.restoreNote(id);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> emptyTrash(List<String> ids) {
+        return write(ids == null ? List.of() : ids, () -> {
+            controller.emptyTrash(ids);
+            return null;
+        });
+    }
+
+    public CompletableFuture<List<Note>> setSortOrder(SortOrder order, boolean deleted) {
+        return read(() -> {
+            controller.setSortOrder(order);
+            return deleted ? controller.getDeletedNotes() : controller.getListOfNotes();
+        });
+    }
+
+    public CompletableFuture<List<Note>> getListOfNotes() {
+        return read(controller::getListOfNotes);
+    }
+
+    public CompletableFuture<List<Note>> getDeletedNotes() {
+        return read(controller::getDeletedNotes);
+    }
+
+    public CompletableFuture<List<Note>> search(String query) {
+        return read(() -> controller.search(query));
+    }
+
+    // Completes once every write submitted so far has finished, e.g. before a search that
+    // must see them
+    public CompletableFuture<Void> whenWritten() {
+        return read(() -> null);
+    }
+
+    // Snapshot for the tag facets, so the UI never waits on the repository
+    public CompletableFuture<Map<String, Integer>> getTagCounts() {
+        return read(controller::getTagCounts);
+    }
+
+    // Match offsets and snippets for result rows by note id, so the UI never waits on the index
+    public CompletableFuture<Map<String, SearchHit>> highlight(String query, List<Note> notes) {
+        return read(() -> {
+            Map<String, SearchHit> hits = new HashMap<>();
+            for (Note note : notes) {
+                hits.put(note.getId(), controller.highlight(query, note));
+            }
+            return hits;
+        });
+    }
+
+    // Runs after every earlier write on any of noteIds, concurrently with other notes
+    private <T> CompletableFuture<T> write(List<String> noteIds, Supplier<T> task) {
+        CompletableFuture<T> result;
+        synchronized (pendingWrites) {
+            CompletableFuture<?>[] before = noteIds.stream()
+                    .map(id -> pendingWrites.getOrDefault(id, DONE))
+                    .toArray(CompletableFuture<?>[]::new);
+            // a failed earlier write must not block the ones after it
+            result = CompletableFuture.allOf(before)
+                    .handle((v, e) -> null)
+                    .thenApplyAsync(v -> task.get(), workers);
+            for (String id : noteIds) {
+                pendingWrites.put(id, result);
+            }
+        }
+        result.whenComplete((v, e) -> {
+            synchronized (pendingWrites) {
+                for (String id : noteIds) {
+                    pendingWrites.remove(id, result);
+                }
+            }
+        });
+        return deliver(result);
+    }
+
+    // Runs after every write submitted so far, so reads see the caller's own edits
+    private <T> CompletableFuture<T> read(Supplier<T> task) {
+        CompletableFuture<?>[] before;
+        synchronized (pendingWrites) {
+            before = pendingWrites.values().toArray(new CompletableFuture<?>[0]);
+        }
+        CompletableFuture<T> result = CompletableFuture.allOf(before)
+                .handle((v, e) -> null)
+                .thenApplyAsync(v -> task.get(), workers);
+        return deliver(result);
+    }
+
+    private <T> CompletableFuture<T> deliver(CompletableFuture<T> work) {
+        CompletableFuture<T> delivered = new CompletableFuture<>();
+        work.whenComplete((value, error) -> resultExecutor.execute(() -> {
+            if (error != null) {
+                delivered.completeExceptionally(error);
+            } else {
+                delivered.complete(value);
+            }
+        }));
+        return delivered;
+    }
+
+    // Lets queued writes finish (up to the timeout) so nothing typed is lost on exit
+    @Override
+    public void close() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
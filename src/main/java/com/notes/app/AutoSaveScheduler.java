@@ -0,0 +1,174 @@
+package com.notes.app;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.notes.model.BodyEdits;
+
+// Saves editor changes in the background: once typing pauses for idleDelay, and at the
+// latest maxDelay after the first unsaved change. Only the newest draft of each note is
+// kept, so a burst of keystrokes becomes one save.
+public class AutoSaveScheduler implements AutoCloseable {
+
+    public static final Duration DEFAULT_IDLE_DELAY = Duration.ofSeconds(1);
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(10);
+
+    // full editor state of one note; version is the edit-journal sequence it reflects (0 if none).
+    // body may be a rope the editor keeps in step with its text, so a draft never copies it.
+    // bodyEdits are the body changes since the note's previous draft, null if not known.
+    public record Draft(String noteId, String title, CharSequence body, List<String> tags, long version,
+                        BodyEdits bodyEdits) {
+
+        public Draft(String noteId, String title, CharSequence body, List<String> tags, long version) {
+            this(noteId, title, body, tags, version, null);
+        }
+
+        // This draft replacing older, which was never saved: its body edits come first
+        Draft after(Draft older) {
+            if (older.bodyEdits() == null || bodyEdits == null) {
+                return new Draft(noteId, title, body, tags, version, null);
+            }
+            return new Draft(noteId, title, body, tags, version, older.bodyEdits().then(bodyEdits));
+        }
+    }
+
+    public interface SaveListener {
+        void saved(Draft draft, long nanos);
+    }
+
+    private final AsyncAppController async;
+    private final long idleNanos;
+    private final long maxNanos;
+    private final ScheduledExecutorService timer;
+
+    private final Map<String, Draft> dirty = new LinkedHashMap<>();
+    // drafts handed to a save that has not completed yet
+    private final Map<String, Draft> saving = new HashMap<>();
+    // System.nanoTime() of the oldest change not yet handed to a save
+    private long firstDirtyAt;
+    private ScheduledFuture<?> pending;
+
+    private SaveListener onSaved = (draft, nanos) -> { };
+    private long saveCount;
+    private long lastSaveNanos;
+    private long maxSaveNanos;
+    private long totalSaveNanos;
+
+    public AutoSaveScheduler(AsyncAppController async) {
+        this(async, DEFAULT_IDLE_DELAY, DEFAULT_MAX_DELAY);
+    }
+
+    public AutoSaveScheduler(AsyncAppController async, Duration idleDelay, Duration maxDelay) {
+        this.async = async;
+        this.idleNanos = idleDelay.toNanos();
+        this.maxNanos = Math.max(idleNanos, maxDelay.toNanos());
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "autosave");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Called after each successful save with its latency in nanoseconds, on the thread that completed it
+    public synchronized void setOnSaved(SaveListener onSaved) {
+        this.onSaved = onSaved == null ? (draft, nanos) -> { } : onSaved;
+    }
+
+    public synchronized void markDirty(Draft draft) {
+        if (dirty.isEmpty()) {
+            firstDirtyAt = System.nanoTime();
+        }
+        Draft older = dirty.get(draft.noteId());
+        dirty.put(draft.noteId(), older == null ? draft : draft.after(older));
+
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        long now = System.nanoTime();
+        long due = Math.min(now + idleNanos, firstDirtyAt + maxNanos);
+        pending = timer.schedule(this::flush, Math.max(0, due - now), TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized boolean isDirty() {
+        return !dirty.isEmpty();
+    }
+
+    // Newest editor state of a note that the repository may not have yet: unsaved, or
+    // flushed but still being written. Null once the repository holds everything typed.
+    public synchronized Draft draftFor(String noteId) {
+        Draft draft = dirty.get(noteId);
+        return draft != null ? draft : saving.get(noteId);
+    }
+
+    // Hands every unsaved draft to the async controller now. Reads submitted to it
+    // afterwards wait for these saves.
+    public synchronized CompletableFuture<Void> flush() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        if (dirty.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<Void>> saves = new ArrayList<>(dirty.size());
+        for (Draft draft : dirty.values()) {
+            long start = System.nanoTime();
+            saving.put(draft.noteId(), draft);
+            saves.add(async.editNote(draft.noteId(), draft.title(), draft.body(), draft.tags(), draft.bodyEdits())
+                    .whenComplete((v, e) -> {
+                        synchronized (this) {
+                            saving.remove(draft.noteId(), draft);
+                        }
+                        if (e == null) {
+                            recordSave(draft, System.nanoTime() - start);
+                        }
+                    }));
+        }
+        dirty.clear();
+        return CompletableFuture.allOf(saves.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private void recordSave(Draft draft, long nanos) {
+        SaveListener listener;
+        synchronized (this) {
+            saveCount++;
+            lastSaveNanos = nanos;
+            maxSaveNanos = Math.max(maxSaveNanos, nanos);
+            totalSaveNanos += nanos;
+            listener = onSaved;
+        }
+        listener.saved(draft, nanos);
+    }
+
+    public synchronized long getSaveCount() {
+        return saveCount;
+    }
+
+    public synchronized long getLastSaveNanos() {
+        return lastSaveNanos;
+    }
+
+    public synchronized long getMaxSaveNanos() {
+        return maxSaveNanos;
+    }
+
+    public synchronized long getAverageSaveNanos() {
+        return saveCount == 0 ? 0 : totalSaveNanos / saveCount;
+    }
+
+    // Saves whatever is still dirty and stops the timer
+    @Override
+    public void close() {
+        flush();
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,409 @@
+package com.notes.app;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import com.notes.app.AutoSaveScheduler.Draft;
+import com.notes.model.Note;
+import com.notes.model.Rope;
+
+// Append-only log of editor keystrokes, so text typed since the last autosave survives a
+// crash. Only changed ranges are logged: the body is never written in full, just a
+// fingerprint of the saved revision the edits apply to, and recovery replays the edits
+// onto the repository's copy. Records are encoded and written on the journal's own thread
+// and forced to disk every syncInterval. Once every logged edit has been saved the file is
+// truncated, so it stays small.
+//
+// Record: int length, int crc32, payload
+//   BEGIN  seq noteId title tags bodyPrint  (editor state the edits apply to)
+//   EDIT   seq noteId field start end text
+//   SAVED  seq noteId bodyPrint             (edits up to seq are in the repository)
+public class EditJournal implements AutoCloseable {
+
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 200;
+
+    public enum Field { TITLE, BODY, TAGS }
+
+    private static final byte BEGIN = 1;
+    private static final byte EDIT = 2;
+    private static final byte SAVED = 3;
+
+    private final FileOutputStream file;
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    // the only thread that touches the file
+    private final ScheduledExecutorService writer;
+
+    private long sequence;
+    // written on the writer thread only
+    private boolean unsynced;
+    // notes with logged edits, mapped to the sequence of their newest edit
+    private final Map<String, Long> openNotes = new HashMap<>();
+
+    // Starts an empty journal; recover() the old one first
+    public EditJournal(Path path) throws IOException {
+        this(path, DEFAULT_SYNC_INTERVAL_MILLIS);
+    }
+
+    public EditJournal(Path path, long syncIntervalMillis) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.file = new FileOutputStream(path.toFile(), false);
+        this.channel = file.getChannel();
+        this.out = new DataOutputStream(new BufferedOutputStream(file));
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "edit-journal");
+            t.setDaemon(true);
+            return t;
+        });
+        writer.scheduleWithFixedDelay(this::force, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized boolean isOpen(String noteId) {
+        return openNotes.containsKey(noteId);
+    }
+
+    // Logs the editor state a note's edits apply to; needed once before its first edit.
+    // body is the saved revision shown in the editor and only its fingerprint is logged.
+    public synchronized long begin(String noteId, String title, CharSequence body, String tags) {
+        long seq = ++sequence;
+        append(BEGIN, seq, noteId, data -> {
+            writeString(data, title);
+            writeString(data, tags);
+            data.writeLong(fingerprint(body));
+        });
+        openNotes.put(noteId, seq);
+        return seq;
+    }
+
+    // Text in [start, end) of field was replaced by text; returns the edit's sequence
+    public synchronized long edit(String noteId, Field field, int start, int end, String text) {
+        if (!openNotes.containsKey(noteId)) {
+            throw new IllegalStateException("edit before begin for note " + noteId);
+        }
+        long seq = ++sequence;
+        append(EDIT, seq, noteId, data -> {
+            data.writeByte(field.ordinal());
+            data.writeInt(start);
+            data.writeInt(end);
+            writeString(data, text);
+        });
+        openNotes.put(noteId, seq);
+        return seq;
+    }
+
+    // Newest logged sequence for the note, or 0 if it has nothing unsaved
+    public synchronized long lastSequence(String noteId) {
+        return openNotes.getOrDefault(noteId, 0L);
+    }
+
+    // The repository now holds the note as of seq, with this body
+    public synchronized void saved(String noteId, long seq, CharSequence body) {
+        Long last = openNotes.get(noteId);
+        if (last == null) {
+            return;
+        }
+        if (seq < last) {
+            // later edits are replayed onto this revision if the crash comes before the next save
+            append(SAVED, seq, noteId, data -> data.writeLong(fingerprint(body)));
+            return;
+        }
+        openNotes.remove(noteId);
+        if (openNotes.isEmpty()) {
+            write(this::truncate);
+        } else {
+            append(SAVED, seq, noteId, data -> data.writeLong(fingerprint(body)));
+        }
+    }
+
+    private interface Payload {
+        void write(DataOutputStream data) throws IOException;
+    }
+
+    // Queues the record for the writer thread; the caller (the FX thread) never touches the file
+    private void append(byte type, long seq, String noteId, Payload payload) {
+        write(() -> writeRecord(type, seq, noteId, payload));
+    }
+
+    private void write(Runnable task) {
+        try {
+            writer.execute(task);
+        } catch (RejectedExecutionException e) {
+            // closed: the app is exiting and the pending saves have been flushed
+        }
+    }
+
+    private void writeRecord(byte type, long seq, String noteId, Payload payload) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream data = new DataOutputStream(bytes);
+            data.writeByte(type);
+            data.writeLong(seq);
+            writeString(data, noteId);
+            payload.write(data);
+
+            byte[] record = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            out.writeInt(record.length);
+            out.writeInt((int) crc.getValue());
+            out.write(record);
+            unsynced = true;
+        } catch (IOException e) {
+            // the journal is a safety net; the editor keeps working without it
+        }
+    }
+
+    private void truncate() {
+        try {
+            out.flush();
+            channel.truncate(0);
+            channel.position(0);
+            unsynced = true;
+        } catch (IOException e) {
+            // a stale journal only replays edits the repository already has
+        }
+    }
+
+    // Blocks until everything logged so far is on disk
+    public void sync() {
+        try {
+            writer.submit(this::force).get();
+        } catch (RejectedExecutionException | ExecutionException e) {
+            // closed, or the force failed and is retried on the next tick
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void force() {
+        if (!unsynced) {
+            return;
+        }
+        try {
+            out.flush();
+            channel.force(false);
+            unsynced = false;
+        } catch (IOException e) {
+            // retried on the next tick
+        }
+    }
+
+    // Writes what is still queued, forces it to disk and closes the file
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        force();
+        try {
+            out.close();
+        } catch (IOException e) {
+            // nothing left to do
+        }
+    }
+
+    // Length and String.hashCode: enough to tell whether the repository holds the revision
+    // the edits were made against. A rope is hashed chunk by chunk, to the same value.
+    static long fingerprint(CharSequence s) {
+        CharSequence text = s == null ? "" : s;
+        int hash;
+        if (text instanceof Rope rope) {
+            hash = 0;
+            for (String chunk : rope.chunks()) {
+                for (int i = 0; i < chunk.length(); i++) {
+                    hash = 31 * hash + chunk.charAt(i);
+                }
+            }
+        } else {
+            hash = text.toString().hashCode();
+        }
+        return ((long) text.length() << 32) | (hash & 0xffffffffL);
+    }
+
+    private static void writeString(DataOutputStream data, String s) throws IOException {
+        byte[] utf8 = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        data.writeInt(utf8.length);
+        data.write(utf8);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        int length = data.readInt();
+        if (length < 0 || length > data.available() + 1) {
+            throw new IOException("bad string length " + length);
+        }
+        byte[] utf8 = new byte[length];
+        data.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private record BodyEdit(long seq, int start, int end, String text) {
+    }
+
+    // Editor state rebuilt from the log for one note. The body is rebuilt later from the
+    // repository's copy, from the newest revision (BEGIN or SAVED) that copy matches.
+    private static final class Replay {
+        final StringBuilder title;
+        final StringBuilder tags;
+        final List<long[]> revisions = new ArrayList<>(); // {seq, bodyPrint}
+        final List<BodyEdit> bodyEdits = new ArrayList<>();
+        long lastSeq;
+        long savedSeq;
+
+        Replay(String title, String tags) {
+            this.title = new StringBuilder(title);
+            this.tags = new StringBuilder(tags);
+        }
+
+        // null if none of the logged revisions is the saved body, so the edits cannot be placed
+        String body(String saved) {
+            long print = fingerprint(saved);
+            for (int i = revisions.size() - 1; i >= 0; i--) {
+                long[] revision = revisions.get(i);
+                if (revision[1] == print) {
+                    return replay(saved, revision[0]);
+                }
+            }
+            return null;
+        }
+
+        private String replay(String saved, long afterSeq) {
+            StringBuilder body = new StringBuilder(saved);
+            for (BodyEdit edit : bodyEdits) {
+                if (edit.seq() <= afterSeq) {
+                    continue;
+                }
+                if (edit.start() < 0 || edit.start() > edit.end() || edit.end() > body.length()) {
+                    return null;
+                }
+                body.replace(edit.start(), edit.end(), edit.text());
+            }
+            return body.toString();
+        }
+    }
+
+    // Unsaved drafts found in the journal at path, in the order they were first edited.
+    // savedBody gives the repository's body of a note (null if it is gone); the logged body
+    // edits are replayed onto it. Reading stops at the first torn or corrupt record, which
+    // is where a crash cut it off.
+    public static Map<String, Draft> recover(Path path, Function<String, String> savedBody) {
+        Map<String, Replay> notes = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+                DataInputStream records = new DataInputStream(in);
+                while (true) {
+                    int length;
+                    try {
+                        length = records.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    int expectedCrc = records.readInt();
+                    if (length <= 0 || length > 64 * 1024 * 1024) {
+                        break;
+                    }
+                    byte[] record = new byte[length];
+                    records.readFully(record);
+                    CRC32 crc = new CRC32();
+                    crc.update(record);
+                    if ((int) crc.getValue() != expectedCrc) {
+                        break;
+                    }
+                    apply(notes, new DataInputStream(new ByteArrayInputStream(record)));
+                }
+            } catch (IOException e) {
+                // torn tail: keep what was read so far
+            }
+        }
+
+        Map<String, Draft> drafts = new LinkedHashMap<>();
+        notes.forEach((noteId, replay) -> {
+            if (replay.lastSeq <= replay.savedSeq) {
+                return;
+            }
+            String saved = savedBody.apply(noteId);
+            String body = saved == null ? null : replay.body(saved);
+            if (body != null) {
+                drafts.put(noteId, new Draft(noteId, replay.title.toString(), body,
+                        Note.parseTags(replay.tags.toString()), replay.lastSeq));
+            }
+        });
+        return drafts;
+    }
+
+    private static void apply(Map<String, Replay> notes, DataInputStream data) throws IOException {
+        byte type = data.readByte();
+        long seq = data.readLong();
+        String noteId = readString(data);
+        switch (type) {
+            case BEGIN -> {
+                String title = readString(data);
+                String tags = readString(data);
+                Replay replay = new Replay(title, tags);
+                replay.revisions.add(new long[] {seq, data.readLong()});
+                replay.lastSeq = seq;
+                notes.remove(noteId);
+                notes.put(noteId, replay);
+            }
+            case EDIT -> {
+                Replay replay = notes.get(noteId);
+                int field = data.readByte();
+                int start = data.readInt();
+                int end = data.readInt();
+                String text = readString(data);
+                if (replay == null || field < 0 || field >= Field.values().length) {
+                    return;
+                }
+                replay.lastSeq = seq;
+                if (field == Field.BODY.ordinal()) {
+                    // placed once the saved body is known
+                    replay.bodyEdits.add(new BodyEdit(seq, start, end, text));
+                    return;
+                }
+                StringBuilder target = field == Field.TITLE.ordinal() ? replay.title : replay.tags;
+                if (start < 0 || start > end || end > target.length()) {
+                    // does not fit the logged state; nothing trustworthy is left for this note
+                    notes.remove(noteId);
+                    return;
+                }
+                target.replace(start, end, text);
+            }
+            case SAVED -> {
+                Replay replay = notes.get(noteId);
+                if (replay != null) {
+                    replay.savedSeq = Math.max(replay.savedSeq, seq);
+                    replay.revisions.add(new long[] {seq, data.readLong()});
+                }
+            }
+            default -> throw new IOException("unknown record type " + type);
+        }
+    }
+}
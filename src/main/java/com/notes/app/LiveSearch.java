@@ -0,0 +1,117 @@
+package com.notes.app;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.notes.model.Note;
+
+// Runs searches off the UI thread; a newer query cancels the one still running and
+// a query that extends the previous one only refines the previous results. A search first
+// waits for the writes submitted before it, so it sees text the user just typed.
+public class LiveSearch implements AutoCloseable {
+
+    private static final Future<?> NO_WRITES = CompletableFuture.completedFuture(null);
+
+    private final AppController controller;
+    private final Executor resultExecutor;
+    private final ExecutorService worker;
+    // completes once every write submitted so far is done, e.g. AsyncAppController::whenWritten
+    private final Supplier<? extends Future<?>> writesDone;
+
+    private Future<?> pending;
+    private long latestRequest;
+
+    // last completed search, reused for refinement while the corpus and tag filter are unchanged
+    private String lastQuery;
+    private List<Note> lastResults;
+    private long lastGeneration = -1;
+    private Set<String> lastTagFilter = Set.of();
+
+    public LiveSearch(AppController controller, Executor resultExecutor) {
+        this(controller, resultExecutor, () -> NO_WRITES);
+    }
+
+    public LiveSearch(AppController controller, Executor resultExecutor, Supplier<? extends Future<?>> writesDone) {
+        this.controller = controller;
+        this.resultExecutor = resultExecutor;
+        this.writesDone = writesDone;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "live-search");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // The superseded search is interrupted; the index notices between shards and posting
+    // blocks and gives up, so it does not hold up the new one
+    public synchronized void submit(String query, Consumer<List<Note>> onResult) {
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        long request = ++latestRequest;
+        // taken now, so it covers exactly the writes submitted before this search
+        Future<?> written = writesDone.get();
+        pending = worker.submit(() -> {
+            try {
+                written.get();
+            } catch (ExecutionException e) {
+                // a failed write changed nothing to wait for
+            } catch (InterruptedException e) {
+                return; // superseded while waiting
+            }
+            List<Note> results = evaluate(query);
+            if (Thread.currentThread().isInterrupted() || !isLatest(request)) {
+                return;
+            }
+            resultExecutor.execute(() -> {
+                // a newer query may have been submitted while this result was in flight
+                if (isLatest(request)) {
+                    onResult.accept(results);
+                }
+            });
+        });
+    }
+
+    public synchronized void cancel() {
+        latestRequest++;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+    }
+
+    private synchronized boolean isLatest(long request) {
+        return request == latestRequest;
+    }
+
+    // only ever called on the single worker thread
+    private List<Note> evaluate(String query) {
+        long generation = controller.getGeneration();
+        Set<String> tagFilter = controller.getTagFilter();
+        List<Note> results;
+        if (generation == lastGeneration && tagFilter.equals(lastTagFilter)) {
+            results = controller.refineSearch(lastQuery, lastResults, query);
+        } else {
+            results = controller.search(query);
+        }
+        lastQuery = query;
+        lastResults = results;
+        lastGeneration = generation;
+        lastTagFilter = tagFilter;
+        return results;
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        worker.shutdownNow();
+    }
+}
@@ -0,0 +1,64 @@
+package com.notes.app;
+
+import java.util.Locale;
+
+// Milestones of app startup, in milliseconds since it began. The window is painted before
+// the notes are loaded, so FIRST_PAINT should not grow with the size of notes.dat.
+public class StartupMetrics {
+
+    public enum Phase {
+        // first frame of the window, still showing the loading state
+        FIRST_PAINT,
+        // notes.dat read and the journal replayed
+        STORAGE_LOADED,
+        // first page of the newest notes on screen; editing is possible from here
+        FIRST_NOTES,
+        // search index loaded; search is possible from here
+        SEARCH_READY
+    }
+
+    private final long startNanos;
+    private final long[] phaseNanos = new long[Phase.values().length];
+
+    public StartupMetrics() {
+        this(System.nanoTime());
+    }
+
+    public StartupMetrics(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    public void mark(Phase phase) {
+        mark(phase, System.nanoTime());
+    }
+
+    // Only the first mark of a phase counts
+    public synchronized void mark(Phase phase, long nowNanos) {
+        if (phaseNanos[phase.ordinal()] == 0) {
+            phaseNanos[phase.ordinal()] = Math.max(1, nowNanos - startNanos);
+        }
+    }
+
+    public synchronized boolean reached(Phase phase) {
+        return phaseNanos[phase.ordinal()] != 0;
+    }
+
+    // Milliseconds from start to phase, or -1 if it has not happened yet
+    public synchronized long millis(Phase phase) {
+        long nanos = phaseNanos[phase.ordinal()];
+        return nanos == 0 ? -1 : nanos / 1_000_000;
+    }
+
+    public synchronized String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            if (reached(phase)) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(phase.name().toLowerCase(Locale.ROOT).replace('_', ' ')).append(' ').append(millis(phase)).append(" ms");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,24 @@
+package com.notes.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// NotesApp.refreshNotesList on the FX thread: patching the shown list and redrawing cells
+@Name("com.notes.ListRefresh")
+@Label("List Refresh")
+@Category({"Notes", "UI"})
+@Description("Applying a new note list to the list view")
+@StackTrace(false)
+public class ListRefreshEvent extends Event {
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("List Operations")
+    @Description("Inserts, removals and replacements applied to the shown list")
+    public int operations;
+}
@@ -0,0 +1,30 @@
+package com.notes.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One SearchIndex.search call. The query text itself is not recorded, only its shape.
+@Name("com.notes.Search")
+@Label("Search")
+@Category({"Notes", "Search"})
+@Description("Full-text search over the index")
+@StackTrace(false)
+public class SearchEvent extends Event {
+
+    @Label("Query Length")
+    public int queryLength;
+
+    @Label("Structured")
+    @Description("Query used operators, phrases, fields or date ranges")
+    public boolean structured;
+
+    @Label("Indexed Notes")
+    public int indexedNotes;
+
+    @Label("Hits")
+    public int hits;
+}
@@ -0,0 +1,30 @@
+package com.notes.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One SortPreference.apply call
+@Name("com.notes.Sort")
+@Label("Sort")
+@Category({"Notes", "Sort"})
+@Description("Sorting a list of notes for display")
+@StackTrace(false)
+public class SortEvent extends Event {
+
+    @Label("Order")
+    public String order;
+
+    @Label("Strategy")
+    public String strategy;
+
+    @Label("Notes")
+    public int notes;
+
+    @Label("Limit")
+    @Description("Rows asked for, or -1 for the whole list")
+    public int limit;
+}
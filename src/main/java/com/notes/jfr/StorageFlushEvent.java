@@ -0,0 +1,25 @@
+package com.notes.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One rewrite of notes.dat by InMemoryLocalStorage
+@Name("com.notes.StorageFlush")
+@Label("Storage Flush")
+@Category({"Notes", "Storage"})
+@Description("Whole-file rewrite of the notes storage")
+@StackTrace(false)
+public class StorageFlushEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,28 @@
+package com.notes.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Reading notes.dat at startup
+@Name("com.notes.StorageLoad")
+@Label("Storage Load")
+@Category({"Notes", "Storage"})
+@Description("Deserializing the notes storage file")
+@StackTrace(false)
+public class StorageLoadEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytes;
+
+    @Label("Entries")
+    public int entries;
+}
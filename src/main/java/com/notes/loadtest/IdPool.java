@@ -0,0 +1,36 @@
+package com.notes.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Note ids users can pick from at random in O(1); removal swaps in the last id
+final class IdPool {
+
+    private final List<String> ids = new ArrayList<>();
+
+    synchronized void add(String id) {
+        ids.add(id);
+    }
+
+    synchronized int size() {
+        return ids.size();
+    }
+
+    // null if empty
+    synchronized String pick(Random random) {
+        return ids.isEmpty() ? null : ids.get(random.nextInt(ids.size()));
+    }
+
+    // null if empty
+    synchronized String take(Random random) {
+        if (ids.isEmpty()) {
+            return null;
+        }
+        int i = random.nextInt(ids.size());
+        String id = ids.get(i);
+        ids.set(i, ids.get(ids.size() - 1));
+        ids.remove(ids.size() - 1);
+        return id;
+    }
+}
@@ -0,0 +1,227 @@
+package com.notes.loadtest;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.notes.app.AppController;
+import com.notes.app.AsyncAppController;
+import com.notes.metrics.LatencyHistogram;
+import com.notes.metrics.MetricsRegistry;
+import com.notes.model.Note;
+import com.notes.repo.NoteRepository;
+import com.notes.repo.Trash;
+import com.notes.search.SearchIndex;
+import com.notes.sort.SortPreference;
+import com.notes.storage.InMemoryLocalStorage;
+import com.notes.util.SystemClock;
+
+// Headless load test: seeds a corpus into a fresh notes.dat, then lets concurrent simulated
+// users drive AsyncAppController (the path the app takes, so writes to one note stay ordered
+// and reads wait for earlier writes) with the workload's operation mix and reports
+// throughput, latency percentiles per operation, heap and file size. No JavaFX involved.
+//
+//   mvn -P loadtest verify -DskipTests -Dloadtest.args="--notes=100000 --users=8 --seconds=60"
+public class LoadTest {
+
+    public record Report(Workload workload,
+                         Map<Operation, LatencyHistogram> latencies,
+                         long operations,
+                         long errors,
+                         long elapsedNanos,
+                         long heapBytes,
+                         long fileBytes) {
+
+        public double throughput() {
+            return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+        }
+
+        public String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d notes, %d users, %.1f s measured%n",
+                    workload.notes(), workload.users(), elapsedNanos / 1e9));
+            sb.append(String.format("%d operations (%.1f/s), %d errors%n", operations, throughput(), errors));
+            sb.append(String.format("%-8s %9s %9s %9s %9s %9s %9s%n",
+                    "op", "count", "ops/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+            for (Map.Entry<Operation, LatencyHistogram> entry : latencies.entrySet()) {
+                LatencyHistogram h = entry.getValue();
+                sb.append(String.format("%-8s %9d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                        entry.getKey(), h.count(), h.count() * 1e9 / Math.max(1, elapsedNanos),
+                        h.percentile(0.50) / 1e6, h.percentile(0.99) / 1e6,
+                        h.percentile(0.999) / 1e6, h.max() / 1e6));
+            }
+            sb.append(String.format("heap used %.1f MB, notes.dat %.1f MB%n", heapBytes / 1e6, fileBytes / 1e6));
+            return sb.toString();
+        }
+    }
+
+    private final Workload workload;
+    private final Path file;
+    private final IdPool active = new IdPool();
+    private final IdPool trashed = new IdPool();
+    private AsyncAppController controller;
+
+    public LoadTest(Workload workload) {
+        this.workload = workload;
+        this.file = workload.dir().resolve("notes.dat");
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.print(new LoadTest(Workload.parse(args)).run().format());
+    }
+
+    public Report run() throws IOException, InterruptedException {
+        seed();
+        // one stream per user, from the seed alone, so a run can be repeated
+        List<Random> randoms = new ArrayList<>(workload.users());
+        for (int u = 0; u < workload.users(); u++) {
+            randoms.add(new Random(workload.seed() * 31 + u));
+        }
+        Phase measured;
+        try {
+            if (!workload.warmup().isZero()) {
+                runUsers(randoms, workload.warmup().toNanos());
+            }
+            measured = runUsers(randoms, workload.duration().toNanos());
+        } finally {
+            controller.close();
+        }
+
+        System.gc();
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        return new Report(workload, measured.latencies, measured.operations.sum(), measured.errors.sum(),
+                measured.elapsedNanos, heap, Files.size(file));
+    }
+
+    // Fresh storage with the whole corpus written once
+    private void seed() throws IOException {
+        Files.createDirectories(workload.dir());
+        Files.deleteIfExists(file);
+        SystemClock clock = new SystemClock();
+        NoteRepository repository = new NoteRepository(new InMemoryLocalStorage(file), clock);
+
+        Random random = new Random(workload.seed());
+        Instant now = clock.now();
+        List<Note> notes = new ArrayList<>(workload.notes());
+        for (int i = 0; i < workload.notes(); i++) {
+            Instant created = now.minusSeconds(random.nextInt(365 * 24 * 3600));
+            Note note = new Note("load-" + i, workload.title(random), workload.body(random), created, created, null);
+            notes.add(note);
+            active.add(note.getId());
+        }
+        repository.importNotes(notes);
+
+        controller = new AsyncAppController(
+                new AppController(repository, new Trash(30, clock), SearchIndex.getInstance(), new SortPreference()),
+                Runnable::run, workload.users());
+    }
+
+    private static final class Phase {
+        final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        final LongAdder operations = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        long elapsedNanos;
+
+        Phase() {
+            MetricsRegistry registry = new MetricsRegistry();
+            for (Operation op : Operation.values()) {
+                latencies.put(op, registry.histogram(op.name()));
+            }
+        }
+    }
+
+    private Phase runUsers(List<Random> randoms, long nanos) throws InterruptedException {
+        Phase phase = new Phase();
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService users = Executors.newFixedThreadPool(workload.users(), r -> {
+            Thread t = new Thread(r, "load-user-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        long deadline = start + nanos;
+        List<Future<?>> running = new ArrayList<>();
+        for (int u = 0; u < workload.users(); u++) {
+            Random random = randoms.get(u);
+            running.add(users.submit(() -> user(random, deadline, phase)));
+        }
+        for (Future<?> f : running) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                phase.errors.increment();
+            }
+        }
+        phase.elapsedNanos = System.nanoTime() - start;
+        users.shutdown();
+        return phase;
+    }
+
+    private void user(Random random, long deadline, Phase phase) {
+        while (System.nanoTime() < deadline) {
+            Operation op = workload.pick(random);
+            long start = System.nanoTime();
+            try {
+                if (!perform(op, random)) {
+                    continue;
+                }
+            } catch (RuntimeException e) {
+                phase.errors.increment();
+                continue;
+            }
+            phase.latencies.get(op).recordSince(start);
+            phase.operations.increment();
+        }
+    }
+
+    // false if the operation had nothing to act on (e.g. restore with an empty trash). Each
+    // user waits for its own operation, so latency includes time queued behind other writes
+    private boolean perform(Operation op, Random random) {
+        switch (op) {
+            case EDIT -> {
+                String id = active.pick(random);
+                if (id == null) {
+                    return false;
+                }
+                controller.editNote(id, workload.title(random), workload.body(random), null).join();
+            }
+            case SEARCH -> controller.search(workload.query(random)).join();
+            case LIST -> controller.getListOfNotes().join();
+            case CREATE -> {
+                Note note = controller.newNote().join();
+                controller.editNote(note.getId(), workload.title(random), workload.body(random), null).join();
+                active.add(note.getId());
+            }
+            case TRASH -> {
+                String id = active.take(random);
+                if (id == null) {
+                    return false;
+                }
+                controller.deleteNote(id).join();
+                trashed.add(id);
+            }
+            case RESTORE -> {
+                String id = trashed.take(random);
+                if (id == null) {
+                    return false;
+                }
+                controller.restoreNote(id).join();
+                active.add(id);
+            }
+        }
+        return true;
+    }
+}
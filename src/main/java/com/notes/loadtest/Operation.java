@@ -0,0 +1,6 @@
+package com.notes.loadtest;
+
+// What a simulated user does in one step
+public enum Operation {
+    EDIT, SEARCH, LIST, CREATE, TRASH, RESTORE
+}
@@ -0,0 +1,145 @@
+package com.notes.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Locale;
+import java.util.Random;
+
+// Shape of a load test: corpus size, how large bodies are, how many users and what they do.
+// Body lengths follow a log-normal distribution (most notes short, a few very long).
+public record Workload(int notes,
+                       int users,
+                       Duration warmup,
+                       Duration duration,
+                       int medianBodyChars,
+                       double bodySigma,
+                       int maxBodyChars,
+                       Map<Operation, Integer> mix,
+                       long seed,
+                       Path dir) {
+
+    private static final String[] WORDS = {
+            "meeting", "project", "budget", "draft", "review", "plan", "travel", "idea", "release",
+            "customer", "invoice", "recipe", "garden", "book", "music", "training", "design", "bug",
+            "deadline", "report", "summary", "agenda", "notes", "call", "email", "weekly", "monthly",
+            "launch", "roadmap", "research", "holiday", "shopping", "health", "family", "school"
+    };
+
+    public Workload {
+        if (notes < 0 || users < 1 || medianBodyChars < 0 || maxBodyChars < medianBodyChars) {
+            throw new IllegalArgumentException("bad workload: " + notes + " notes, " + users + " users");
+        }
+        mix = Map.copyOf(mix);
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("operation mix needs a positive weight");
+        }
+    }
+
+    public static Workload defaults() {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        mix.put(Operation.EDIT, 40);
+        mix.put(Operation.SEARCH, 25);
+        mix.put(Operation.LIST, 20);
+        mix.put(Operation.CREATE, 5);
+        mix.put(Operation.TRASH, 5);
+        mix.put(Operation.RESTORE, 5);
+        return new Workload(10_000, 4, Duration.ofSeconds(5), Duration.ofSeconds(30),
+                400, 1.0, 200_000, mix, 1, Path.of("target", "loadtest"));
+    }
+
+    // --notes=N --users=N --warmup=SECONDS --seconds=SECONDS --median-body=CHARS --sigma=X
+    // --max-body=CHARS --mix=edit:40,search:25,... --seed=N --dir=PATH
+    public static Workload parse(String[] args) {
+        Workload w = defaults();
+        int notes = w.notes;
+        int users = w.users;
+        Duration warmup = w.warmup;
+        Duration duration = w.duration;
+        int median = w.medianBodyChars;
+        double sigma = w.bodySigma;
+        int max = w.maxBodyChars;
+        Map<Operation, Integer> mix = w.mix;
+        long seed = w.seed;
+        Path dir = w.dir;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("expected --name=value, got " + arg);
+            }
+            String value = arg.substring(eq + 1);
+            switch (arg.substring(2, eq)) {
+                case "notes" -> notes = Integer.parseInt(value);
+                case "users" -> users = Integer.parseInt(value);
+                case "warmup" -> warmup = Duration.ofMillis((long) (Double.parseDouble(value) * 1000));
+                case "seconds" -> duration = Duration.ofMillis((long) (Double.parseDouble(value) * 1000));
+                case "median-body" -> median = Integer.parseInt(value);
+                case "sigma" -> sigma = Double.parseDouble(value);
+                case "max-body" -> max = Integer.parseInt(value);
+                case "mix" -> mix = parseMix(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "dir" -> dir = Path.of(value);
+                default -> throw new IllegalArgumentException("unknown option " + arg);
+            }
+        }
+        return new Workload(notes, users, warmup, duration, median, sigma, max, mix, seed, dir);
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] kv = part.split(":");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("expected op:weight, got " + part);
+            }
+            mix.put(Operation.valueOf(kv[0].strip().toUpperCase(Locale.ROOT)), Integer.parseInt(kv[1].strip()));
+        }
+        return mix;
+    }
+
+    // An operation drawn with the mix's weights
+    Operation pick(Random random) {
+        int total = 0;
+        for (int weight : mix.values()) {
+            total += weight;
+        }
+        int r = random.nextInt(total);
+        for (Operation op : Operation.values()) {
+            r -= mix.getOrDefault(op, 0);
+            if (r < 0) {
+                return op;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    String title(Random random) {
+        return words(random, 1 + random.nextInt(4), Integer.MAX_VALUE);
+    }
+
+    String body(Random random) {
+        double length = medianBodyChars * Math.exp(bodySigma * random.nextGaussian());
+        return words(random, Integer.MAX_VALUE, (int) Math.min(maxBodyChars, Math.max(0, length)));
+    }
+
+    // one or two words, like something typed in the search box
+    String query(Random random) {
+        return words(random, 1 + random.nextInt(2), Integer.MAX_VALUE);
+    }
+
+    private static String words(Random random, int count, int maxChars) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (sb.length() + 1 + word.length() > maxChars) {
+                break;
+            }
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(word);
+        }
+        return sb.toString();
+    }
+}
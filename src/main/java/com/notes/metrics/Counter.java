@@ -0,0 +1,24 @@
+package com.notes.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Monotonic count, e.g. bytes written or cache hits; cheap to bump from many threads
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
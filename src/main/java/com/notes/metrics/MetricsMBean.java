@@ -0,0 +1,117 @@
+package com.notes.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+// Read-only view of a registry for JConsole / VisualVM. Attributes are built from the
+// metrics present when read, so ones registered later show up too:
+//   counter   name                          (long)
+//   gauge     name                          (double)
+//   histogram name.count, name.p50 ... name.max, name.mean   (latencies in microseconds)
+final class MetricsMBean implements DynamicMBean {
+
+    private static final String[] STATS = {"count", "p50", "p90", "p99", "p999", "max", "mean"};
+
+    private final MetricsRegistry registry;
+
+    MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Counter counter = registry.getCounters().get(attribute);
+        if (counter != null) {
+            return counter.get();
+        }
+        DoubleSupplier gauge = registry.getGauges().get(attribute);
+        if (gauge != null) {
+            return gauge.getAsDouble();
+        }
+        int dot = attribute.lastIndexOf('.');
+        if (dot > 0) {
+            LatencyHistogram histogram = registry.getHistograms().get(attribute.substring(0, dot));
+            if (histogram != null) {
+                return stat(histogram, attribute.substring(dot + 1), attribute);
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    private static Object stat(LatencyHistogram h, String stat, String attribute) throws AttributeNotFoundException {
+        return switch (stat) {
+            case "count" -> h.count();
+            case "p50" -> h.percentile(0.50) / 1000.0;
+            case "p90" -> h.percentile(0.90) / 1000.0;
+            case "p99" -> h.percentile(0.99) / 1000.0;
+            case "p999" -> h.percentile(0.999) / 1000.0;
+            case "max" -> h.max() / 1000.0;
+            case "mean" -> h.mean() / 1000.0;
+            default -> throw new AttributeNotFoundException(attribute);
+        };
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String name : attributes) {
+            try {
+                list.add(new Attribute(name, getAttribute(name)));
+            } catch (AttributeNotFoundException e) {
+                // skipped, as the JMX contract allows
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    // No operations; the MBean server expects an unknown one as a ReflectionException
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature)
+            throws MBeanException, ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String name : registry.getCounters().keySet()) {
+            attributes.add(new MBeanAttributeInfo(name, "long", "counter", true, false, false));
+        }
+        for (String name : registry.getGauges().keySet()) {
+            attributes.add(new MBeanAttributeInfo(name, "double", "gauge", true, false, false));
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : registry.getHistograms().entrySet()) {
+            for (String stat : STATS) {
+                boolean isCount = stat.equals("count");
+                attributes.add(new MBeanAttributeInfo(entry.getKey() + "." + stat,
+                        isCount ? "long" : "double",
+                        isCount ? "operations recorded" : stat + " latency in microseconds",
+                        true, false, false));
+            }
+        }
+        return new MBeanInfo(MetricsMBean.class.getName(), "Notes app metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[0], null);
+    }
+}
@@ -0,0 +1,78 @@
+package com.notes.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Named counters, gauges and latency histograms. Classes look their metrics up once and keep
+// them in fields, so recording on a hot path is just an increment. getDefault() is the
+// registry the app's classes use and the one published over JMX as com.notes:type=Metrics.
+public class MetricsRegistry {
+
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    // sorted, so JMX lists related metrics together
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+
+    private ObjectName registeredAs;
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    // Read on demand; registering a name again replaces the earlier gauge
+    public void gauge(String name, DoubleSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public Map<String, Counter> getCounters() {
+        return counters;
+    }
+
+    public Map<String, DoubleSupplier> getGauges() {
+        return gauges;
+    }
+
+    public Map<String, LatencyHistogram> getHistograms() {
+        return histograms;
+    }
+
+    // Publishes every metric as an attribute of one MBean on the platform MBean server
+    public synchronized ObjectName registerMBean(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(name);
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+        server.registerMBean(new MetricsMBean(this), objectName);
+        registeredAs = objectName;
+        return objectName;
+    }
+
+    public synchronized void unregisterMBean() {
+        if (registeredAs == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredAs);
+        } catch (JMException e) {
+            // already gone
+        }
+        registeredAs = null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.notes.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Body changes from the editor and the stored body they were typed against: baseRevision is
+// the note's revision when the editor loaded it, or FOLLOWS when they continue the previous
+// batch saved for the same note
+public record BodyEdits(long baseRevision, List<TextEdit> edits) {
+
+    public static final long FOLLOWS = -1;
+
+    public BodyEdits {
+        edits = List.copyOf(edits);
+    }
+
+    // This batch followed by newer, typed after it, when neither has been saved yet
+    public BodyEdits then(BodyEdits newer) {
+        if (newer.baseRevision() != FOLLOWS) {
+            // typed against a body loaded again from the repository; this batch no longer applies
+            return newer;
+        }
+        List<TextEdit> all = new ArrayList<>(edits.size() + newer.edits().size());
+        all.addAll(edits);
+        all.addAll(newer.edits());
+        return new BodyEdits(baseRevision, all);
+    }
+
+    // True if these edits can be applied to a body stored at revision and storedLength
+    // long, turning it into one newLength long
+    public boolean fits(long revision, int storedLength, int newLength) {
+        return baseRevision != FOLLOWS && baseRevision == revision
+                && TextEdit.lengthAfter(storedLength, edits) == newLength;
+    }
+}
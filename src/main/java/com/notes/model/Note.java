@@ -1,8 +1,18 @@
 package com.notes.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.text.CollationKey;
+import java.text.Collator;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 
 // Memento Pattern: Originator for Note.java + Trash.java + NoteMemento.java
@@ -11,10 +21,22 @@ public class Note implements Serializable {
 
     private final String id;
     private String title;
+    // only set while reading notes saved before content became a rope
     private String content;
+    // body text; null when the note has no content
+    private Rope text;
     private final Instant createdAt;
     private Instant updatedAt;
     private Instant deletedAt;
+    // repository sequence number of the last persisted change (0 for older notes)
+    private long revision;
+    // normalized tags, sorted; null for notes saved before tags existed
+    private TreeSet<String> tags;
+
+    // cached sort key of the title; rebuilt only when the title or the collator changes
+    private transient CollationKey titleKey;
+    private transient String titleKeySource;
+    private transient Collator titleKeyCollator;
 
     public Note(String title, String content, Instant now) {
         this(UUID.randomUUID().toString(), title, content, now, now, null);
@@ -28,7 +50,7 @@ public class Note implements Serializable {
                 Instant deletedAt) {
         this.id = id;
         this.title = title;
-        this.content = content;
+        this.text = content == null ? null : Rope.of(content);
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
         this.deletedAt = deletedAt;
@@ -43,7 +65,17 @@ public class Note implements Serializable {
     }
 
     public String getContent() {
-        return content;
+        return text == null ? null : text.toString();
+    }
+
+    // The body as a rope; edits and mementos share its unchanged chunks
+    public Rope getText() {
+        return text;
+    }
+
+    // Compares without flattening the rope into one string
+    public boolean hasContent(CharSequence content) {
+        return text == null ? content == null : text.contentEquals(content);
     }
 
     public Instant getCreatedAt() {
@@ -58,14 +90,101 @@ public class Note implements Serializable {
         return deletedAt;
     }
 
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public CollationKey getTitleKey(Collator collator) {
+        if (titleKey == null || titleKeySource != title || titleKeyCollator != collator) {
+            titleKey = collator.getCollationKey(title == null ? "" : title);
+            titleKeySource = title;
+            titleKeyCollator = collator;
+        }
+        return titleKey;
+    }
+
+    public Set<String> getTags() {
+        return tags == null ? Collections.emptySet() : Collections.unmodifiableSet(tags);
+    }
+
+    public boolean hasTag(String tag) {
+        return tags != null && tags.contains(tag);
+    }
+
+    public void updateTags(Collection<String> newTags) {
+        updateTags(newTags, Instant.now());
+    }
+
+    public void updateTags(Collection<String> newTags, Instant now) {
+        this.tags = normalizeTags(newTags);
+        this.updatedAt = now;
+    }
+
+    // Tags as typed in the editor: separated by commas or whitespace
+    public static List<String> parseTags(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return List.of(text.strip().split("[,\\s]+"));
+    }
+
+    // Normalized, de-duplicated and sorted; blank tags are dropped
+    public static TreeSet<String> normalizeTags(Collection<String> tags) {
+        TreeSet<String> normalized = new TreeSet<>();
+        if (tags != null) {
+            for (String tag : tags) {
+                String t = normalizeTag(tag);
+                if (!t.isEmpty()) {
+                    normalized.add(t);
+                }
+            }
+        }
+        return normalized;
+    }
+
+    // "#Work " -> "work"; tags are compared case-insensitively
+    public static String normalizeTag(String tag) {
+        if (tag == null) {
+            return "";
+        }
+        String t = tag.strip();
+        while (t.startsWith("#")) {
+            t = t.substring(1);
+        }
+        return t.strip().toLowerCase(Locale.ROOT);
+    }
+
     public void updateTitle(String title) {
+        updateTitle(title, Instant.now());
+    }
+
+    public void updateTitle(String title, Instant now) {
         this.title = title;
-        this.updatedAt = Instant.now();
+        this.updatedAt = now;
     }
 
     public void updateContent(String content) {
-        this.content = content;
-        this.updatedAt = Instant.now();
+        updateContent(content, Instant.now());
+    }
+
+    // Keeps the rope chunks of the unchanged start and end of the body; a rope is taken as it is
+    public void updateContent(CharSequence content, Instant now) {
+        if (content == null) {
+            this.text = null;
+        } else {
+            this.text = text == null ? Rope.of(content) : text.replaceWith(content);
+        }
+        this.updatedAt = now;
+    }
+
+    // Body text in [start, end) replaced by replacement; costs the size of the edit, not the note
+    public void editContent(int start, int end, String replacement, Instant now) {
+        this.text = (text == null ? Rope.EMPTY : text).replace(start, end, replacement);
+        this.updatedAt = now;
     }
 
     public void markDeleted(Instant now) {
@@ -83,7 +202,7 @@ public class Note implements Serializable {
 
     // Memento Pattern: create memento snapshot
     public NoteMemento createMemento() {
-        return new NoteMemento(id, title, content, createdAt, updatedAt, deletedAt);
+        return new NoteMemento(id, title, text, createdAt, updatedAt, deletedAt);
     }
 
     // Memento Pattern: restore from snapshot (but keep note active)
@@ -92,11 +211,19 @@ public class Note implements Serializable {
             return;
         }
         this.title = memento.getTitle();
-        this.content = memento.getContent();
+        this.text = memento.getText();
         this.updatedAt = memento.getUpdatedAt();
         // do NOT restore deletedAt; it stays cleared so note is active after restore
     }
 
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (text == null && content != null) {
+            text = Rope.of(content);
+        }
+        content = null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
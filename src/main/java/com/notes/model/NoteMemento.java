@@ -8,7 +8,8 @@ public class NoteMemento implements Serializable {
 
     private final String id;
     private final String title;
-    private final String content;
+    // shares chunks with the note it was taken from, so snapshots are cheap
+    private final Rope text;
     private final Instant createdAt;
     private final Instant updatedAt;
     private final Instant deletedAt;
@@ -19,9 +20,18 @@ public class NoteMemento implements Serializable {
                        Instant createdAt,
                        Instant updatedAt,
                        Instant deletedAt) {
+        this(id, title, content == null ? null : Rope.of(content), createdAt, updatedAt, deletedAt);
+    }
+
+    public NoteMemento(String id,
+                       String title,
+                       Rope text,
+                       Instant createdAt,
+                       Instant updatedAt,
+                       Instant deletedAt) {
         this.id = id;
         this.title = title;
-        this.content = content;
+        this.text = text;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
         this.deletedAt = deletedAt;
@@ -36,7 +46,11 @@ public class NoteMemento implements Serializable {
     }
 
     public String getContent() {
-        return content;
+        return text == null ? null : text.toString();
+    }
+
+    public Rope getText() {
+        return text;
     }
 
     public Instant getCreatedAt() {
@@ -0,0 +1,365 @@
+package com.notes.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+// Immutable text stored as a balanced tree of small chunks. An edit builds a new rope that
+// shares every untouched chunk with the old one, so editing a large note costs about the size
+// of the edit plus O(log n), and keeping old versions (mementos) costs almost nothing.
+public final class Rope implements CharSequence, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    static final int LEAF_SIZE = 1024;
+    // deeper than this after many edits -> rebuild balanced
+    private static final int MAX_DEPTH = 48;
+
+    public static final Rope EMPTY = new Rope(new Leaf(""));
+
+    private transient Node root;
+
+    private Rope(Node root) {
+        this.root = root;
+    }
+
+    public static Rope of(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return EMPTY;
+        }
+        if (text instanceof Rope rope) {
+            return rope;
+        }
+        List<String> chunks = new ArrayList<>(text.length() / LEAF_SIZE + 1);
+        for (int i = 0; i < text.length(); i += LEAF_SIZE) {
+            chunks.add(text.subSequence(i, Math.min(text.length(), i + LEAF_SIZE)).toString());
+        }
+        return new Rope(balanced(chunks));
+    }
+
+    @Override
+    public int length() {
+        return root.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        Node node = root;
+        while (node instanceof Concat c) {
+            if (index < c.left.length()) {
+                node = c.left;
+            } else {
+                index -= c.left.length();
+                node = c.right;
+            }
+        }
+        return ((Leaf) node).text.charAt(index);
+    }
+
+    @Override
+    public Rope subSequence(int start, int end) {
+        checkRange(start, end);
+        if (start == 0 && end == length()) {
+            return this;
+        }
+        if (start == end) {
+            return EMPTY;
+        }
+        return new Rope(slice(root, start, end));
+    }
+
+    public Rope insert(int index, CharSequence text) {
+        return replace(index, index, text);
+    }
+
+    public Rope delete(int start, int end) {
+        return replace(start, end, "");
+    }
+
+    // Text in [start, end) replaced by text
+    public Rope replace(int start, int end, CharSequence text) {
+        checkRange(start, end);
+        if (start == end && (text == null || text.length() == 0)) {
+            return this;
+        }
+        Node result = concat(slice(root, 0, start), of(text).root);
+        result = concat(result, slice(root, end, length()));
+        return new Rope(result.depth() > MAX_DEPTH ? balanced(chunks(result)) : result);
+    }
+
+    // A rope equal to text that keeps this rope's chunks for the unchanged head and tail,
+    // e.g. when the editor hands over the whole body after a small edit
+    public Rope replaceWith(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return EMPTY;
+        }
+        List<String> chunks = chunks();
+        int max = Math.min(length(), text.length());
+
+        int prefix = 0;
+        scan:
+        for (String chunk : chunks) {
+            for (int i = 0; i < chunk.length(); i++, prefix++) {
+                if (prefix == max || chunk.charAt(i) != text.charAt(prefix)) {
+                    break scan;
+                }
+            }
+        }
+        int suffix = 0;
+        int maxSuffix = max - prefix;
+        scan:
+        for (int c = chunks.size() - 1; c >= 0; c--) {
+            String chunk = chunks.get(c);
+            for (int i = chunk.length() - 1; i >= 0; i--, suffix++) {
+                if (suffix == maxSuffix || chunk.charAt(i) != text.charAt(text.length() - 1 - suffix)) {
+                    break scan;
+                }
+            }
+        }
+        if (prefix == length() && prefix == text.length()) {
+            return this;
+        }
+        return replace(prefix, length() - suffix, text.subSequence(prefix, text.length() - suffix));
+    }
+
+    // True if this rope holds exactly the characters of text, compared chunk by chunk
+    public boolean contentEquals(CharSequence text) {
+        if (text == null || text.length() != length()) {
+            return false;
+        }
+        int offset = 0;
+        for (String chunk : chunks()) {
+            for (int i = 0; i < chunk.length(); i++) {
+                if (chunk.charAt(i) != text.charAt(offset++)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Offset of the first occurrence of s, with chars compared ignoring case as
+    // String.regionMatches(true, ...) does; -1 if there is none. Walks the leaves in place,
+    // so nothing is flattened or allocated; a match may straddle leaves.
+    public int indexOfIgnoreCase(String s) {
+        if (s.isEmpty()) {
+            return 0;
+        }
+        return indexOfIgnoreCase(root, 0, s);
+    }
+
+    private int indexOfIgnoreCase(Node node, int offset, String s) {
+        if (node instanceof Concat c) {
+            int found = indexOfIgnoreCase(c.left, offset, s);
+            return found >= 0 ? found : indexOfIgnoreCase(c.right, offset + c.left.length(), s);
+        }
+        String text = ((Leaf) node).text;
+        char first = s.charAt(0);
+        int last = Math.min(text.length() - 1, length() - s.length() - offset);
+        for (int i = 0; i <= last; i++) {
+            if (!sameIgnoringCase(text.charAt(i), first)) {
+                continue;
+            }
+            boolean match = i + s.length() <= text.length()
+                    ? text.regionMatches(true, i, s, 0, s.length())
+                    : matchesAt(offset + i, s);
+            if (match) {
+                return offset + i;
+            }
+        }
+        return -1;
+    }
+
+    // s at index, for a match running past the end of a leaf
+    private boolean matchesAt(int index, String s) {
+        for (int k = 0; k < s.length(); k++) {
+            if (!sameIgnoringCase(charAt(index + k), s.charAt(k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameIgnoringCase(char a, char b) {
+        if (a == b) {
+            return true;
+        }
+        char ua = Character.toUpperCase(a);
+        char ub = Character.toUpperCase(b);
+        return ua == ub || Character.toLowerCase(ua) == Character.toLowerCase(ub);
+    }
+
+    // The chunks in order; concatenated they are the text
+    public List<String> chunks() {
+        return chunks(root);
+    }
+
+    // Builds a new string each time and keeps no copy: a large note held as a rope would
+    // otherwise be held twice. Read the chunks where a flat string is not needed.
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(length());
+        for (String chunk : chunks()) {
+            sb.append(chunk);
+        }
+        return sb.toString();
+    }
+
+    private void checkRange(int start, int end) {
+        if (start < 0 || start > end || end > length()) {
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + ") of length " + length());
+        }
+    }
+
+    // Streams chunk by chunk instead of building one big string
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        List<String> chunks = chunks();
+        out.writeInt(chunks.size());
+        for (String chunk : chunks) {
+            out.writeUTF(chunk);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("bad chunk count " + count);
+        }
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            chunks.add(in.readUTF());
+        }
+        root = balanced(chunks);
+    }
+
+    // ---- tree ----
+
+    private abstract static sealed class Node permits Leaf, Concat {
+        abstract int length();
+
+        abstract int depth();
+    }
+
+    private static final class Leaf extends Node {
+        final String text;
+
+        Leaf(String text) {
+            this.text = text;
+        }
+
+        @Override
+        int length() {
+            return text.length();
+        }
+
+        @Override
+        int depth() {
+            return 0;
+        }
+    }
+
+    private static final class Concat extends Node {
+        final Node left;
+        final Node right;
+        final int length;
+        final int depth;
+
+        Concat(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+            this.length = left.length() + right.length();
+            this.depth = Math.max(left.depth(), right.depth()) + 1;
+        }
+
+        @Override
+        int length() {
+            return length;
+        }
+
+        @Override
+        int depth() {
+            return depth;
+        }
+    }
+
+    private static Node concat(Node left, Node right) {
+        if (left.length() == 0) {
+            return right;
+        }
+        if (right.length() == 0) {
+            return left;
+        }
+        // keep typing from producing a chain of one-character leaves
+        if (left instanceof Leaf l && right instanceof Leaf r && l.length() + r.length() <= LEAF_SIZE) {
+            return new Leaf(l.text + r.text);
+        }
+        if (left instanceof Concat c && c.right instanceof Leaf l && right instanceof Leaf r
+                && l.length() + r.length() <= LEAF_SIZE) {
+            return new Concat(c.left, new Leaf(l.text + r.text));
+        }
+        if (right instanceof Concat c && c.left instanceof Leaf r && left instanceof Leaf l
+                && l.length() + r.length() <= LEAF_SIZE) {
+            return new Concat(new Leaf(l.text + r.text), c.right);
+        }
+        return new Concat(left, right);
+    }
+
+    private static Node slice(Node node, int start, int end) {
+        if (start == 0 && end == node.length()) {
+            return node;
+        }
+        if (start == end) {
+            return EMPTY.root;
+        }
+        if (node instanceof Leaf leaf) {
+            return new Leaf(leaf.text.substring(start, end));
+        }
+        Concat c = (Concat) node;
+        int split = c.left.length();
+        if (end <= split) {
+            return slice(c.left, start, end);
+        }
+        if (start >= split) {
+            return slice(c.right, start - split, end - split);
+        }
+        return concat(slice(c.left, start, split), slice(c.right, 0, end - split));
+    }
+
+    private static List<String> chunks(Node node) {
+        List<String> chunks = new ArrayList<>();
+        List<Node> stack = new ArrayList<>();
+        stack.add(node);
+        while (!stack.isEmpty()) {
+            Node n = stack.remove(stack.size() - 1);
+            if (n instanceof Concat c) {
+                stack.add(c.right);
+                stack.add(c.left);
+            } else if (n.length() > 0) {
+                chunks.add(((Leaf) n).text);
+            }
+        }
+        return chunks;
+    }
+
+    private static Node balanced(List<String> chunks) {
+        if (chunks.isEmpty()) {
+            return new Leaf("");
+        }
+        return balanced(chunks, 0, chunks.size());
+    }
+
+    private static Node balanced(List<String> chunks, int from, int to) {
+        if (to - from == 1) {
+            return new Leaf(chunks.get(from));
+        }
+        int mid = (from + to) >>> 1;
+        return new Concat(balanced(chunks, from, mid), balanced(chunks, mid, to));
+    }
+}
@@ -0,0 +1,20 @@
+package com.notes.model;
+
+import java.util.List;
+
+// Text in [start, end) replaced by text, as the editor reports a keystroke or paste
+public record TextEdit(int start, int end, String text) {
+
+    // Length of a text of length before, after edits are applied in order; -1 if one of
+    // them does not fit
+    public static int lengthAfter(int before, List<TextEdit> edits) {
+        int length = before;
+        for (TextEdit edit : edits) {
+            if (edit.start() < 0 || edit.start() > edit.end() || edit.end() > length) {
+                return -1;
+            }
+            length += edit.text().length() - (edit.end() - edit.start());
+        }
+        return length;
+    }
+}
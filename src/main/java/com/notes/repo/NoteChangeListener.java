@@ -0,0 +1,13 @@
+package com.notes.repo;
+
+import com.notes.model.Note;
+
+// Observer Pattern: notified by NoteRepository after every persisted change
+public interface NoteChangeListener {
+
+    // note was created, edited, trashed or restored
+    void noteChanged(Note note);
+
+    // note was permanently removed
+    void notePurged(String noteId);
+}
@@ -1,23 +1,93 @@
 package com.notes.repo;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+import com.notes.metrics.LatencyHistogram;
+import com.notes.metrics.MetricsRegistry;
 import com.notes.model.Note;
+import com.notes.search.RoaringBitmap;
 import com.notes.storage.LocalStorage;
 import com.notes.util.Clock;
 
 public class NoteRepository {
     private static final String KEY = "notes";
+    private static final String GENERATION_KEY = "generation";
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    private static final LatencyHistogram SAVE = METRICS.histogram("repository.save");
 
     private final LocalStorage storage;
     private final Clock clock;
+    // incremented on every mutation; lets caches detect that the corpus changed.
+    // Changed notes are stamped with it. It is stored with the notes, so it never goes
+    // backwards across restarts, even after a purge (which stamps no note).
+    private long generation;
+
+    // Dense doc ids, assigned in the order notes are first seen and not reused after a
+    // purge. Active/trashed state is kept as bitmaps over them instead of filtering notes.
+    private final List<Note> notesByDoc = new ArrayList<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final RoaringBitmap present = new RoaringBitmap();
+    private final RoaringBitmap deleted = new RoaringBitmap();
+    private final TagIndex tagIndex = new TagIndex();
+    private final List<NoteChangeListener> listeners = new ArrayList<>();
 
     public NoteRepository(LocalStorage storage, Clock clock) {
         this.storage = storage;
         this.clock = clock;
+        if (storage.read(GENERATION_KEY) instanceof Long stored) {
+            generation = stored;
+        }
+        // files written before the generation was stored only have the revisions
+        for (Note note : load().values()) {
+            generation = Math.max(generation, note.getRevision());
+            track(note);
+        }
+        METRICS.gauge("repository.notes", this::countNotes);
+        METRICS.gauge("repository.deleted", this::countDeleted);
+    }
+
+    private void track(Note note) {
+        Integer doc = docIds.get(note.getId());
+        if (doc == null) {
+            doc = notesByDoc.size();
+            docIds.put(note.getId(), doc);
+            notesByDoc.add(note);
+            present.add(doc);
+        } else {
+            notesByDoc.set(doc, note);
+        }
+        if (note.isDeleted()) {
+            deleted.add(doc);
+        } else {
+            deleted.remove(doc);
+        }
+        tagIndex.update(doc, note.getTags(), !note.isDeleted());
+        for (NoteChangeListener listener : listeners) {
+            listener.noteChanged(note);
+        }
+    }
+
+    private void untrack(String noteId) {
+        Integer doc = docIds.remove(noteId);
+        if (doc != null) {
+            notesByDoc.set(doc, null);
+            present.remove(doc);
+            deleted.remove(doc);
+            tagIndex.remove(doc);
+            for (NoteChangeListener listener : listeners) {
+                listener.notePurged(noteId);
+            }
+        }
+    }
+
+    private List<Note> notesIn(RoaringBitmap docs) {
+        List<Note> result = new ArrayList<>(docs.cardinality());
+        docs.forEach(doc -> result.add(notesByDoc.get(doc)));
+        return result;
     }
 
     @SuppressWarnings("unchecked")
@@ -33,46 +103,109 @@ public class NoteRepository {
         return new HashMap<>();
     }
 
-    private void saveAll(Map<String, Note> notes) {
-        storage.write(KEY, notes);
+    private void saveAll(Map<String, Note> notes, Note changed) {
+        generation++;
+        if (changed != null) {
+            changed.setRevision(generation);
+            track(changed);
+        }
+        persist(notes);
+    }
+
+    private void persist(Map<String, Note> notes) {
+        long start = System.nanoTime();
+        storage.writeAll(Map.of(KEY, notes, GENERATION_KEY, generation));
+        SAVE.recordSince(start);
     }
 
-    public Note createNote(String title, String content) {
+    // Registers listener and replays every current note to it
+    public synchronized void addListener(NoteChangeListener listener) {
+        listeners.add(listener);
+        for (Note note : notesIn(present)) {
+            listener.noteChanged(note);
+        }
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized Note createNote(String title, String content) {
         Map<String, Note> notes = load();
         Note note = new Note(title, content, clock.now());
         notes.put(note.getId(), note);
-        saveAll(notes);
+        saveAll(notes, note);
         return note;
     }
 
-    public Note getNoteById(String id) {
+    public synchronized Note getNoteById(String id) {
         if (id == null) return null;
         Map<String, Note> notes = load();
         return notes.get(id);
     }
 
-    public List<Note> listNotes() {
+    public synchronized List<Note> getNotesByIds(List<String> ids) {
         Map<String, Note> notes = load();
-        return notes.values().stream()
-                .filter(n -> !n.isDeleted())
-                .collect(Collectors.toList());
+        List<Note> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Note note = notes.get(id);
+            if (note != null) {
+                result.add(note);
+            }
+        }
+        return result;
     }
 
-    public List<Note> listDeleted() {
-        Map<String, Note> notes = load();
-        return notes.values().stream()
-                .filter(Note::isDeleted)
-                .collect(Collectors.toList());
+    public synchronized List<Note> listNotes() {
+        return notesIn(present.andNot(deleted));
+    }
+
+    // Active notes carrying all of the given tags
+    public synchronized List<Note> listNotesWithTags(Collection<String> tags) {
+        return notesIn(tagIndex.docsWithAll(Note.normalizeTags(tags)));
+    }
+
+    // Active notes per tag, sorted by tag; maintained incrementally
+    public synchronized Map<String, Integer> getTagCounts() {
+        return tagIndex.counts();
     }
 
-    public void save(Note note) {
+    public synchronized int countNotes() {
+        return present.cardinality() - deleted.cardinality();
+    }
+
+    public synchronized int countDeleted() {
+        return deleted.cardinality();
+    }
+
+    public synchronized List<Note> listDeleted() {
+        return notesIn(deleted);
+    }
+
+    public synchronized void save(Note note) {
         if (note == null) return;
         Map<String, Note> notes = load();
         notes.put(note.getId(), note);
-        saveAll(notes);
+        saveAll(notes, note);
+    }
+
+    // Adds or replaces many notes with a single storage write, e.g. to seed a large corpus
+    public synchronized void importNotes(Collection<Note> imported) {
+        Map<String, Note> notes = load();
+        generation++;
+        for (Note note : imported) {
+            notes.put(note.getId(), note);
+            note.setRevision(generation);
+            track(note);
+        }
+        persist(notes);
     }
 
-    public void moveToTrash(String noteId) {
+    public synchronized void moveToTrash(String noteId) {
         Map<String, Note> notes = load();
         Note note = notes.get(noteId);
         if (note == null) {
@@ -80,10 +213,10 @@ public class NoteRepository {
         }
         note.markDeleted(clock.now());
         notes.put(note.getId(), note);
-        saveAll(notes);
+        saveAll(notes, note);
     }
 
-    public void restoreFromTrash(String noteId) {
+    public synchronized void restoreFromTrash(String noteId) {
         Map<String, Note> notes = load();
         Note note = notes.get(noteId);
         if (note == null) {
@@ -91,12 +224,13 @@ public class NoteRepository {
         }
         note.clearDelete();
         notes.put(note.getId(), note);
-        saveAll(notes);
+        saveAll(notes, note);
     }
 
-    public void purgeDeletedNotes(String noteId) {
+    public synchronized void purgeDeletedNotes(String noteId) {
         Map<String, Note> notes = load();
         notes.remove(noteId);
-        saveAll(notes);
+        untrack(noteId);
+        saveAll(notes, null);
     }
 }
@@ -0,0 +1,77 @@
+package com.notes.repo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.notes.search.RoaringBitmap;
+
+// Tag -> active docs carrying it, kept up to date on every change so facet counts
+// never need a scan. Trashed docs keep their tags but are not counted.
+class TagIndex {
+
+    private final Map<String, RoaringBitmap> docsByTag = new HashMap<>();
+    // active docs per tag, sorted by tag for display
+    private final TreeMap<String, Integer> counts = new TreeMap<>();
+    // what each doc contributed last time, since notes are mutated in place
+    private final List<Set<String>> tagsByDoc = new ArrayList<>();
+    private final RoaringBitmap active = new RoaringBitmap();
+
+    void update(int doc, Set<String> tags, boolean isActive) {
+        remove(doc);
+        while (tagsByDoc.size() <= doc) {
+            tagsByDoc.add(Set.of());
+        }
+        Set<String> copy = Set.copyOf(tags);
+        tagsByDoc.set(doc, copy);
+        if (isActive) {
+            active.add(doc);
+            for (String tag : copy) {
+                docsByTag.computeIfAbsent(tag, t -> new RoaringBitmap()).add(doc);
+                counts.merge(tag, 1, Integer::sum);
+            }
+        }
+    }
+
+    void remove(int doc) {
+        if (doc >= tagsByDoc.size()) {
+            return;
+        }
+        if (active.contains(doc)) {
+            active.remove(doc);
+            for (String tag : tagsByDoc.get(doc)) {
+                RoaringBitmap docs = docsByTag.get(tag);
+                docs.remove(doc);
+                if (docs.isEmpty()) {
+                    docsByTag.remove(tag);
+                    counts.remove(tag);
+                } else {
+                    counts.merge(tag, -1, Integer::sum);
+                }
+            }
+        }
+        tagsByDoc.set(doc, Set.of());
+    }
+
+    // Active docs carrying every one of the tags; callers must not modify the bitmap
+    RoaringBitmap docsWithAll(Set<String> tags) {
+        RoaringBitmap result = null;
+        for (String tag : tags) {
+            RoaringBitmap docs = docsByTag.get(tag);
+            if (docs == null) {
+                return new RoaringBitmap();
+            }
+            result = result == null ? docs : result.and(docs);
+        }
+        return result == null ? active : result;
+    }
+
+    // Number of active notes per tag, sorted by tag
+    Map<String, Integer> counts() {
+        return Collections.unmodifiableMap(new TreeMap<>(counts));
+    }
+}
@@ -13,6 +13,7 @@ import com.notes.model.NoteMemento;
 import com.notes.util.Clock;
 
 // Memento Pattern: Caretaker
+// Synchronized: the async controller deletes and restores different notes concurrently
 public class Trash {
 
     private final int retentionDays;
@@ -26,7 +27,7 @@ public class Trash {
         this.clock = clock;
     }
 
-    public void add(Note note) {
+    public synchronized void add(Note note) {
         if (note == null || !note.isDeleted()) {
             return;
         }
@@ -36,7 +37,7 @@ public class Trash {
         snapshots.put(note.getId(), note.createMemento());
     }
 
-    public void remove(Note note) {
+    public synchronized void remove(Note note) {
         if (note == null) {
             return;
         }
@@ -44,15 +45,15 @@ public class Trash {
         snapshots.remove(note.getId());
     }
 
-    public List<Note> listDeleted() {
+    public synchronized List<Note> listDeleted() {
         return new ArrayList<>(deleted);
     }
 
-    public NoteMemento getSnapshot(String noteId) {
+    public synchronized NoteMemento getSnapshot(String noteId) {
         return snapshots.get(noteId);
     }
 
-    public void purgeExpired() {
+    public synchronized void purgeExpired() {
         Instant now = clock.now();
         Iterator<Note> iterator = deleted.iterator();
         while (iterator.hasNext()) {
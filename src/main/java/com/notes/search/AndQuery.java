@@ -0,0 +1,51 @@
+package com.notes.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+// Every clause in must matches and no clause in mustNot does
+record AndQuery(List<Query> must, List<Query> mustNot) implements Query {
+
+    @Override
+    public RoaringBitmap docs(QueryContext context) {
+        RoaringBitmap result;
+        if (must.isEmpty()) {
+            result = RoaringBitmap.range(0, context.docCount());
+        } else {
+            // start from the rarest clause so intermediate results stay small
+            List<Query> ordered = new ArrayList<>(must);
+            ordered.sort(Comparator.comparingInt(q -> q.cost(context)));
+            result = ordered.get(0).docs(context);
+            for (int i = 1; i < ordered.size() && !result.isEmpty(); i++) {
+                context.checkCancelled();
+                result = result.and(ordered.get(i).docs(context));
+            }
+        }
+        for (Query excluded : mustNot) {
+            if (result.isEmpty()) {
+                break;
+            }
+            context.checkCancelled();
+            result = result.andNot(excluded.docs(context));
+        }
+        return result;
+    }
+
+    @Override
+    public void collectTerms(Set<String> terms) {
+        for (Query q : must) {
+            q.collectTerms(terms);
+        }
+    }
+
+    @Override
+    public int cost(QueryContext context) {
+        int cost = context.docCount();
+        for (Query q : must) {
+            cost = Math.min(cost, q.cost(context));
+        }
+        return cost;
+    }
+}
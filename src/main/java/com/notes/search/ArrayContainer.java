@@ -0,0 +1,173 @@
+package com.notes.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Sparse chunk: sorted array of up to ARRAY_MAX values
+final class ArrayContainer extends Container {
+
+    char[] values;
+    int size;
+
+    ArrayContainer(int capacity) {
+        this.values = new char[Math.max(4, capacity)];
+    }
+
+    private ArrayContainer(char[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    // values must arrive in increasing order
+    void append(char value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = value;
+    }
+
+    @Override
+    int cardinality() {
+        return size;
+    }
+
+    @Override
+    boolean contains(char value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    @Override
+    Container add(char value) {
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos >= 0) {
+            return this;
+        }
+        if (size == ARRAY_MAX) {
+            return toBitmap().add(value);
+        }
+        int insert = -pos - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.min(ARRAY_MAX, values.length * 2));
+        }
+        System.arraycopy(values, insert, values, insert + 1, size - insert);
+        values[insert] = value;
+        size++;
+        return this;
+    }
+
+    @Override
+    Container remove(char value) {
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos >= 0) {
+            System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+            size--;
+        }
+        return this;
+    }
+
+    @Override
+    Container and(Container other) {
+        ArrayContainer out = new ArrayContainer(size);
+        if (other instanceof ArrayContainer array) {
+            ArrayContainer small = size <= array.size ? this : array;
+            ArrayContainer large = small == this ? array : this;
+            // gallop through the larger array so skewed sizes cost O(small * log large)
+            int cursor = 0;
+            for (int i = 0; i < small.size && cursor < large.size; i++) {
+                char v = small.values[i];
+                cursor = large.advance(cursor, v);
+                if (cursor < large.size && large.values[cursor] == v) {
+                    out.append(v);
+                }
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i])) {
+                    out.append(values[i]);
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    Container or(Container other) {
+        if (other instanceof BitmapContainer) {
+            return other.or(this);
+        }
+        ArrayContainer array = (ArrayContainer) other;
+        if (size + array.size > ARRAY_MAX) {
+            return toBitmap().or(array);
+        }
+        ArrayContainer out = new ArrayContainer(size + array.size);
+        int i = 0;
+        int j = 0;
+        while (i < size && j < array.size) {
+            char a = values[i];
+            char b = array.values[j];
+            if (a < b) {
+                out.append(a);
+                i++;
+            } else if (a > b) {
+                out.append(b);
+                j++;
+            } else {
+                out.append(a);
+                i++;
+                j++;
+            }
+        }
+        while (i < size) {
+            out.append(values[i++]);
+        }
+        while (j < array.size) {
+            out.append(array.values[j++]);
+        }
+        return out;
+    }
+
+    @Override
+    Container andNot(Container other) {
+        ArrayContainer out = new ArrayContainer(size);
+        for (int i = 0; i < size; i++) {
+            if (!other.contains(values[i])) {
+                out.append(values[i]);
+            }
+        }
+        return out;
+    }
+
+    @Override
+    Container copy() {
+        return new ArrayContainer(Arrays.copyOf(values, Math.max(4, size)), size);
+    }
+
+    @Override
+    void forEach(int high, IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(high | values[i]);
+        }
+    }
+
+    // First index >= from whose value is >= target: exponential probe, then binary search
+    private int advance(int from, char target) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < size && values[high] < target) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        int pos = Arrays.binarySearch(values, low, Math.min(high + 1, size), target);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    BitmapContainer toBitmap() {
+        BitmapContainer bitmap = new BitmapContainer();
+        for (int i = 0; i < size; i++) {
+            bitmap.set(values[i]);
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,129 @@
+package com.notes.search;
+
+import java.util.function.IntConsumer;
+
+// Dense chunk: one bit per value, 1024 words
+final class BitmapContainer extends Container {
+
+    final long[] words = new long[1024];
+    int cardinality;
+
+    void set(char value) {
+        long bit = 1L << value;
+        int index = value >>> 6;
+        if ((words[index] & bit) == 0) {
+            words[index] |= bit;
+            cardinality++;
+        }
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    boolean contains(char value) {
+        return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    Container add(char value) {
+        set(value);
+        return this;
+    }
+
+    @Override
+    Container remove(char value) {
+        long bit = 1L << value;
+        int index = value >>> 6;
+        if ((words[index] & bit) != 0) {
+            words[index] &= ~bit;
+            cardinality--;
+        }
+        return cardinality <= ARRAY_MAX ? toArray() : this;
+    }
+
+    @Override
+    Container and(Container other) {
+        if (other instanceof ArrayContainer) {
+            return other.and(this);
+        }
+        BitmapContainer bitmap = (BitmapContainer) other;
+        BitmapContainer out = new BitmapContainer();
+        for (int i = 0; i < words.length; i++) {
+            out.words[i] = words[i] & bitmap.words[i];
+            out.cardinality += Long.bitCount(out.words[i]);
+        }
+        return out.shrink();
+    }
+
+    @Override
+    Container or(Container other) {
+        BitmapContainer out = (BitmapContainer) copy();
+        if (other instanceof ArrayContainer array) {
+            for (int i = 0; i < array.size; i++) {
+                out.set(array.values[i]);
+            }
+            return out;
+        }
+        BitmapContainer bitmap = (BitmapContainer) other;
+        out.cardinality = 0;
+        for (int i = 0; i < words.length; i++) {
+            out.words[i] = words[i] | bitmap.words[i];
+            out.cardinality += Long.bitCount(out.words[i]);
+        }
+        return out;
+    }
+
+    @Override
+    Container andNot(Container other) {
+        BitmapContainer out = (BitmapContainer) copy();
+        if (other instanceof ArrayContainer array) {
+            for (int i = 0; i < array.size; i++) {
+                char v = array.values[i];
+                if (out.contains(v)) {
+                    out.words[v >>> 6] &= ~(1L << v);
+                    out.cardinality--;
+                }
+            }
+            return out.shrink();
+        }
+        BitmapContainer bitmap = (BitmapContainer) other;
+        out.cardinality = 0;
+        for (int i = 0; i < words.length; i++) {
+            out.words[i] = words[i] & ~bitmap.words[i];
+            out.cardinality += Long.bitCount(out.words[i]);
+        }
+        return out.shrink();
+    }
+
+    @Override
+    Container copy() {
+        BitmapContainer out = new BitmapContainer();
+        System.arraycopy(words, 0, out.words, 0, words.length);
+        out.cardinality = cardinality;
+        return out;
+    }
+
+    @Override
+    void forEach(int high, IntConsumer action) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                action.accept(high | (i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    private Container shrink() {
+        return cardinality <= ARRAY_MAX ? toArray() : this;
+    }
+
+    private ArrayContainer toArray() {
+        ArrayContainer array = new ArrayContainer(cardinality);
+        forEach(0, v -> array.append((char) v));
+        return array;
+    }
+}
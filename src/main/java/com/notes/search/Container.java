@@ -0,0 +1,46 @@
+package com.notes.search;
+
+import java.util.function.IntConsumer;
+
+// Holds the low 16 bits of the values in one 65536-wide chunk of a RoaringBitmap.
+// Operations never modify their arguments; mutators return the container to keep,
+// which may be a different representation.
+abstract class Container {
+
+    // above this many values a bitmap (8 KB) is smaller than a sorted char array
+    static final int ARRAY_MAX = 4096;
+
+    abstract int cardinality();
+
+    abstract boolean contains(char value);
+
+    abstract Container add(char value);
+
+    abstract Container remove(char value);
+
+    abstract Container and(Container other);
+
+    abstract Container or(Container other);
+
+    abstract Container andNot(Container other);
+
+    abstract Container copy();
+
+    // Calls action with high | value for every value, in ascending order
+    abstract void forEach(int high, IntConsumer action);
+
+    static Container full(int from, int to) {
+        if (to - from > ARRAY_MAX) {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int v = from; v < to; v++) {
+                bitmap.set((char) v);
+            }
+            return bitmap;
+        }
+        ArrayContainer array = new ArrayContainer(to - from);
+        for (int v = from; v < to; v++) {
+            array.append((char) v);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,92 @@
+package com.notes.search;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import com.notes.model.Note;
+
+// One timestamp field of every doc, sorted: a range is two binary searches and a slice
+final class DateIndex {
+
+    static final DateIndex EMPTY = new DateIndex(new long[0], new int[0]);
+
+    // epoch seconds ascending, and the doc each entry belongs to
+    private final long[] seconds;
+    private final int[] docs;
+
+    private DateIndex(long[] seconds, int[] docs) {
+        this.seconds = seconds;
+        this.docs = docs;
+    }
+
+    // null notes (holes in the index) are filed under second 0
+    static DateIndex build(List<Note> notes, Function<Note, Instant> field) {
+        int n = notes.size();
+        long[] raw = new long[n];
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int doc = 0; doc < n; doc++) {
+            Note note = notes.get(doc);
+            Instant time = note == null ? null : field.apply(note);
+            raw[doc] = time == null ? 0 : time.getEpochSecond();
+            min = Math.min(min, raw[doc]);
+            max = Math.max(max, raw[doc]);
+        }
+
+        long[] seconds = new long[n];
+        int[] docs = new int[n];
+        if (n > 0 && max - min < (1L << 32)) {
+            // pack (offset from min, doc) into one long so a primitive sort orders both
+            long[] packed = new long[n];
+            for (int doc = 0; doc < n; doc++) {
+                packed[doc] = (raw[doc] - min) << 31 | doc;
+            }
+            Arrays.sort(packed);
+            for (int i = 0; i < n; i++) {
+                docs[i] = (int) (packed[i] & Integer.MAX_VALUE);
+                seconds[i] = (packed[i] >>> 31) + min;
+            }
+        } else if (n > 0) {
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(raw[a], raw[b]));
+            for (int i = 0; i < n; i++) {
+                docs[i] = order[i];
+                seconds[i] = raw[order[i]];
+            }
+        }
+        return new DateIndex(seconds, docs);
+    }
+
+    // Docs whose timestamp is in [fromSecond, toSecond)
+    RoaringBitmap range(long fromSecond, long toSecond) {
+        int lo = lowerBound(fromSecond);
+        int hi = Math.max(lo, lowerBound(toSecond));
+        int[] slice = Arrays.copyOfRange(docs, lo, hi);
+        Arrays.sort(slice);
+        return RoaringBitmap.fromSorted(slice);
+    }
+
+    int count(long fromSecond, long toSecond) {
+        return Math.max(0, lowerBound(toSecond) - lowerBound(fromSecond));
+    }
+
+    // first index whose timestamp is >= second
+    private int lowerBound(long second) {
+        int lo = 0;
+        int hi = seconds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (seconds[mid] < second) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,26 @@
+package com.notes.search;
+
+import java.util.Set;
+
+// created:/updated: filter over [fromSecond, toSecond) in epoch seconds
+record DateRangeQuery(boolean created, long fromSecond, long toSecond) implements Query {
+
+    @Override
+    public RoaringBitmap docs(QueryContext context) {
+        return index(context).range(fromSecond, toSecond);
+    }
+
+    @Override
+    public int cost(QueryContext context) {
+        return index(context).count(fromSecond, toSecond);
+    }
+
+    @Override
+    public void collectTerms(Set<String> terms) {
+        // nothing to highlight
+    }
+
+    private DateIndex index(QueryContext context) {
+        return created ? context.created() : context.updated();
+    }
+}
@@ -0,0 +1,16 @@
+package com.notes.search;
+
+// Which part of a note a query clause applies to
+enum Field {
+    ANY,
+    TITLE,
+    BODY;
+
+    boolean accepts(int encodedPosition) {
+        return switch (this) {
+            case ANY -> true;
+            case TITLE -> (encodedPosition & 1) == TermDictionary.TITLE;
+            case BODY -> (encodedPosition & 1) == TermDictionary.BODY;
+        };
+    }
+}
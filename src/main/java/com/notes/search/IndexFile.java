@@ -0,0 +1,202 @@
+package com.notes.search;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+// On-disk search index: header, doc id table, then the sorted term dictionary with
+// delta + varint compressed positional posting lists. Read into one heap buffer; each term's
+// block is skipped on open and decoded only when a query first uses the term. The file is
+// not kept mapped: a live mapping would stop the next write from replacing it on Windows.
+//
+//   int magic, int format, long sequence
+//   varint docCount, docCount x string
+//   varint termCount, termCount x (string term, varint blockBytes, block)
+//   block = varint docFreq, docFreq x posting
+//   posting = varint docGap, varint freq, freq x varint positionGap, freq x varint offset
+//
+// strings are a varint byte length followed by UTF-8 bytes
+final class IndexFile {
+
+    static final int MAGIC = 0x4E494458; // "NIDX"
+    static final int FORMAT = 4;
+
+    // Repository sequence the index reflects, the note id of every doc ordinal, and the terms
+    record Contents(long sequence, String[] docIds, TermDictionary dictionary) {
+    }
+
+    // One term's decoded postings, as TermDictionary holds them
+    record Postings(int[] docs, int[][] positions, int[][] offsets) {
+    }
+
+    private static final Postings NO_POSTINGS = new Postings(new int[0], new int[0][], new int[0][]);
+
+    private IndexFile() {
+    }
+
+    static void write(Path file, long sequence, List<String> docIds, TermDictionary dictionary) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(sequence);
+
+            writeVarint(out, docIds.size());
+            for (String id : docIds) {
+                writeString(out, id);
+            }
+
+            writeVarint(out, dictionary.size());
+            ByteArrayOutputStream block = new ByteArrayOutputStream();
+            for (int ord = 0; ord < dictionary.size(); ord++) {
+                writeString(out, dictionary.term(ord));
+                block.reset();
+                int[] docs = dictionary.postings(ord);
+                writeVarint(block, docs.length);
+                int previous = 0;
+                for (int k = 0; k < docs.length; k++) {
+                    writeVarint(block, docs[k] - previous);
+                    previous = docs[k];
+                    int[] positions = dictionary.positions(ord, k);
+                    writeVarint(block, positions.length);
+                    int previousPosition = 0;
+                    for (int position : positions) {
+                        writeVarint(block, position - previousPosition);
+                        previousPosition = position;
+                    }
+                    for (int offset : dictionary.offsets(ord, k)) {
+                        writeVarint(block, offset);
+                    }
+                }
+                // the length lets a reader skip the block until the term is used
+                writeVarint(out, block.size());
+                block.writeTo(out);
+            }
+        }
+        // readers never observe a half written index
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Reads the header, doc ids and terms; posting blocks are only located, not decoded
+    static Contents read(Path file) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT) {
+                throw new IOException("Unsupported search index format: " + file);
+            }
+            long sequence = buf.getLong();
+
+            String[] docIds = new String[readVarint(buf)];
+            for (int i = 0; i < docIds.length; i++) {
+                docIds[i] = readString(buf);
+            }
+
+            int termCount = readVarint(buf);
+            String[] terms = new String[termCount];
+            int[] blocks = new int[termCount];
+            for (int ord = 0; ord < termCount; ord++) {
+                terms[ord] = readString(buf);
+                int length = readVarint(buf);
+                if (length < 0 || length > buf.remaining()) {
+                    throw new IOException("Truncated search index: " + file);
+                }
+                blocks[ord] = buf.position();
+                buf.position(buf.position() + length);
+            }
+            return new Contents(sequence, docIds, TermDictionary.mapped(terms, buf, blocks, docIds.length));
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Truncated search index: " + file, e);
+        }
+    }
+
+    // Decodes the block at offset. A corrupt block reads as a term without docs: the index
+    // is only a cache, and the term comes back with the next rebuild.
+    static Postings readPostings(ByteBuffer source, int offset, int docCount) {
+        ByteBuffer buf = source.duplicate();
+        buf.position(offset);
+        try {
+            int docFreq = readVarint(buf);
+            if (docFreq < 0 || docFreq > docCount) {
+                return NO_POSTINGS;
+            }
+            int[] docs = new int[docFreq];
+            int[][] docPositions = new int[docs.length][];
+            int[][] docOffsets = new int[docs.length][];
+            int doc = 0;
+            for (int i = 0; i < docs.length; i++) {
+                doc += readVarint(buf);
+                if (doc < 0 || doc >= docCount) {
+                    return NO_POSTINGS;
+                }
+                docs[i] = doc;
+                int freq = readVarint(buf);
+                if (freq < 0 || freq > buf.remaining()) {
+                    return NO_POSTINGS;
+                }
+                int[] encoded = new int[freq];
+                int position = 0;
+                for (int k = 0; k < encoded.length; k++) {
+                    position += readVarint(buf);
+                    encoded[k] = position;
+                }
+                docPositions[i] = encoded;
+                int[] starts = new int[encoded.length];
+                for (int k = 0; k < starts.length; k++) {
+                    starts[k] = readVarint(buf);
+                }
+                docOffsets[i] = starts;
+            }
+            return new Postings(docs, docPositions, docOffsets);
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            return NO_POSTINGS;
+        }
+    }
+
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(ByteBuffer buf) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buf.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static void writeString(OutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = readVarint(buf);
+        if (length < 0 || length > buf.remaining()) {
+            throw new IllegalArgumentException("Bad string length");
+        }
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,47 @@
+package com.notes.search;
+
+// Accepts every string within maxEdits insertions, deletions or substitutions of a word.
+// A state is one row of the edit distance table, capped at maxEdits + 1 so that
+// equivalent states stay small; stepping a state costs O(word length).
+final class LevenshteinAutomaton {
+
+    private final String word;
+    private final int maxEdits;
+
+    LevenshteinAutomaton(String word, int maxEdits) {
+        this.word = word;
+        this.maxEdits = maxEdits;
+    }
+
+    int[] start() {
+        int[] state = new int[word.length() + 1];
+        for (int i = 0; i < state.length; i++) {
+            state[i] = Math.min(i, maxEdits + 1);
+        }
+        return state;
+    }
+
+    int[] step(int[] state, char c) {
+        int[] next = new int[state.length];
+        next[0] = Math.min(state[0] + 1, maxEdits + 1);
+        for (int i = 1; i < state.length; i++) {
+            int cost = word.charAt(i - 1) == c ? 0 : 1;
+            int value = Math.min(state[i - 1] + cost, Math.min(state[i] + 1, next[i - 1] + 1));
+            next[i] = Math.min(value, maxEdits + 1);
+        }
+        return next;
+    }
+
+    boolean isMatch(int[] state) {
+        return state[state.length - 1] <= maxEdits;
+    }
+
+    boolean canMatch(int[] state) {
+        for (int value : state) {
+            if (value <= maxEdits) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
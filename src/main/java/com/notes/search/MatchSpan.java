@@ -0,0 +1,5 @@
+package com.notes.search;
+
+// [start, end) character range of a match
+public record MatchSpan(int start, int end) {
+}
@@ -0,0 +1,34 @@
+package com.notes.search;
+
+import java.util.List;
+import java.util.Set;
+
+// At least one clause matches
+record OrQuery(List<Query> should) implements Query {
+
+    @Override
+    public RoaringBitmap docs(QueryContext context) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (Query q : should) {
+            context.checkCancelled();
+            result = result.or(q.docs(context));
+        }
+        return result;
+    }
+
+    @Override
+    public void collectTerms(Set<String> terms) {
+        for (Query q : should) {
+            q.collectTerms(terms);
+        }
+    }
+
+    @Override
+    public int cost(QueryContext context) {
+        long cost = 0;
+        for (Query q : should) {
+            cost += q.cost(context);
+        }
+        return (int) Math.min(cost, context.docCount());
+    }
+}
@@ -0,0 +1,84 @@
+package com.notes.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+// Terms that must appear consecutively in the same field
+record PhraseQuery(Field field, List<String> terms) implements Query {
+
+    @Override
+    public RoaringBitmap docs(QueryContext context) {
+        int[] ords = new int[terms.size()];
+        for (int k = 0; k < ords.length; k++) {
+            ords[k] = context.dictionary().find(terms.get(k));
+            if (ords[k] < 0) {
+                return new RoaringBitmap();
+            }
+        }
+
+        // candidates: docs containing every term, intersected rarest first
+        Integer[] byFrequency = new Integer[ords.length];
+        for (int k = 0; k < ords.length; k++) {
+            byFrequency[k] = ords[k];
+        }
+        Arrays.sort(byFrequency, (x, y) -> Integer.compare(
+                context.dictionary().postings(x).length, context.dictionary().postings(y).length));
+        RoaringBitmap candidates = context.dictionary().bitmap(byFrequency[0]);
+        for (int k = 1; k < byFrequency.length && !candidates.isEmpty(); k++) {
+            candidates = candidates.and(context.dictionary().bitmap(byFrequency[k]));
+        }
+
+        // verify positions; candidates ascend, so each term's cursor only moves forward
+        RoaringBitmap out = new RoaringBitmap();
+        int[] cursors = new int[ords.length];
+        int[][] docPositions = new int[ords.length][];
+        int[] checked = new int[1];
+        candidates.forEach(doc -> {
+            if (checked[0]++ % SearchShard.CANCEL_CHECK_INTERVAL == 0) {
+                context.checkCancelled();
+            }
+            for (int k = 0; k < ords.length; k++) {
+                cursors[k] = PostingLists.advance(context.dictionary().postings(ords[k]), cursors[k], doc);
+                docPositions[k] = context.dictionary().positions(ords[k], cursors[k]);
+            }
+            if (matchesAt(docPositions) >= 0) {
+                out.add(doc);
+            }
+        });
+        return out;
+    }
+
+    // Encoded position where the phrase starts in one doc, or -1
+    int matchesAt(int[][] docPositions) {
+        for (int start : docPositions[0]) {
+            if (!field.accepts(start)) {
+                continue;
+            }
+            boolean match = true;
+            // consecutive words in the same field are two apart once encoded
+            for (int k = 1; k < docPositions.length && match; k++) {
+                match = Arrays.binarySearch(docPositions[k], start + 2 * k) >= 0;
+            }
+            if (match) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void collectTerms(Set<String> collected) {
+        collected.addAll(terms);
+    }
+
+    @Override
+    public int cost(QueryContext context) {
+        int cost = context.docCount();
+        for (String term : terms) {
+            int ord = context.dictionary().find(term);
+            cost = Math.min(cost, ord < 0 ? 0 : context.dictionary().postings(ord).length);
+        }
+        return cost;
+    }
+}
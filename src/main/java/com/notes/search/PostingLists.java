@@ -0,0 +1,30 @@
+package com.notes.search;
+
+import java.util.Arrays;
+
+// Cursor helpers over sorted doc ordinal arrays
+final class PostingLists {
+
+    private PostingLists() {
+    }
+
+    // First index i >= from with list[i] >= target, or list.length. Gallops (exponential
+    // then binary search) so a forward walk over k targets costs O(k * log(n / k)).
+    static int advance(int[] list, int from, int target) {
+        if (from >= list.length || list[from] >= target) {
+            return from;
+        }
+        int step = 1;
+        int low = from;
+        int high = from + 1;
+        while (high < list.length && list[high] < target) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        high = Math.min(high, list.length);
+        // list[low] < target <= list[high], search strictly between them
+        int pos = Arrays.binarySearch(list, low + 1, high, target);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+}
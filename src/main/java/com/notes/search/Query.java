@@ -0,0 +1,16 @@
+package com.notes.search;
+
+import java.util.Set;
+
+// Parsed search query, evaluated against the positional term dictionary
+interface Query {
+
+    // Ordinals of the matching docs; callers must not modify the bitmap
+    RoaringBitmap docs(QueryContext context);
+
+    // Upper bound on the number of matches, used to evaluate the cheapest clause first
+    int cost(QueryContext context);
+
+    // Terms whose occurrences explain a match (excluded clauses contribute nothing)
+    void collectTerms(Set<String> terms);
+}
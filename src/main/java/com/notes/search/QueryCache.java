@@ -0,0 +1,76 @@
+package com.notes.search;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// LRU cache of query -> matching note ids, valid for one repository generation
+public class QueryCache {
+
+    public static final int DEFAULT_CAPACITY = 128;
+
+    private final int capacity;
+    private final Map<String, List<String>> entries;
+    private long generation = -1;
+    private long hits;
+    private long misses;
+
+    public QueryCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public QueryCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                return size() > QueryCache.this.capacity;
+            }
+        };
+    }
+
+    public synchronized List<String> get(long generation, String query) {
+        List<String> ids = generation == this.generation ? entries.get(query) : null;
+        if (ids == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return ids;
+    }
+
+    public synchronized void put(long generation, String query, List<String> ids) {
+        if (generation != this.generation) {
+            // corpus changed since the cached entries were computed
+            entries.clear();
+            this.generation = generation;
+        }
+        entries.put(query, List.copyOf(ids));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        generation = -1;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,10 @@
+package com.notes.search;
+
+// Everything a query is evaluated against: one consistent index snapshot
+record QueryContext(TermDictionary dictionary, DateIndex created, DateIndex updated, int docCount) {
+
+    // Called between clauses and blocks of postings so a superseded query stops early
+    void checkCancelled() {
+        SearchIndex.checkCancelled(Thread.currentThread());
+    }
+}
@@ -0,0 +1,260 @@
+package com.notes.search;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+// Parses the search box language:
+//   deploy AND rollback -staging      AND is implicit between clauses
+//   deploy OR release                 OR binds looser than AND
+//   NOT draft, -draft                 exclusion
+//   "release notes"                   phrase, words must be consecutive
+//   title:roadmap body:"next step"    restrict a word or phrase to one field
+//   (api OR web) deploy               grouping
+//   updated:>2026-09-01 created:<2026-01-01
+//                                     date filters (>, >=, <, <= or a single day, local time)
+// Operators are only recognised in upper case.
+final class QueryParser {
+
+    private enum Kind { WORD, PHRASE, DATE, LPAREN, RPAREN, AND, OR, NOT }
+
+    private record Token(Kind kind, Field field, String text) {
+    }
+
+    private static final String[] FIELD_PREFIXES = {"title:", "body:"};
+    private static final Field[] FIELDS = {Field.TITLE, Field.BODY};
+
+    // matches nothing; used when the query has no searchable words
+    private static final Query NONE = new OrQuery(List.of());
+
+    private final List<Token> tokens;
+    private int next;
+
+    private QueryParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    static Query parse(String query) {
+        QueryParser parser = new QueryParser(lex(query));
+        List<Query> clauses = new ArrayList<>();
+        while (parser.next < parser.tokens.size()) {
+            Query q = parser.parseOr();
+            if (q != null) {
+                clauses.add(q);
+            }
+            // skip an unbalanced ')'
+            if (parser.peek(Kind.RPAREN)) {
+                parser.next++;
+            }
+        }
+        if (clauses.isEmpty()) {
+            return NONE;
+        }
+        return clauses.size() == 1 ? clauses.get(0) : new AndQuery(clauses, List.of());
+    }
+
+    // True if the query uses any operator, phrase or field; plain text keeps substring matching
+    static boolean isStructured(String query) {
+        if (query == null) {
+            return false;
+        }
+        for (Token token : lex(query)) {
+            if (token.kind() != Kind.WORD || token.field() != Field.ANY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Query parseOr() {
+        List<Query> should = new ArrayList<>();
+        Query first = parseAnd();
+        if (first != null) {
+            should.add(first);
+        }
+        while (peek(Kind.OR)) {
+            next++;
+            Query q = parseAnd();
+            if (q != null) {
+                should.add(q);
+            }
+        }
+        if (should.isEmpty()) {
+            return null;
+        }
+        return should.size() == 1 ? should.get(0) : new OrQuery(should);
+    }
+
+    private Query parseAnd() {
+        List<Query> must = new ArrayList<>();
+        List<Query> mustNot = new ArrayList<>();
+        while (next < tokens.size() && !peek(Kind.RPAREN) && !peek(Kind.OR)) {
+            if (peek(Kind.AND)) {
+                next++;
+                continue;
+            }
+            boolean negated = false;
+            while (peek(Kind.NOT)) {
+                next++;
+                negated = !negated;
+            }
+            Query q = parsePrimary();
+            if (q != null) {
+                (negated ? mustNot : must).add(q);
+            }
+        }
+        if (must.isEmpty() && mustNot.isEmpty()) {
+            return null;
+        }
+        if (must.size() == 1 && mustNot.isEmpty()) {
+            return must.get(0);
+        }
+        return new AndQuery(must, mustNot);
+    }
+
+    private Query parsePrimary() {
+        if (next >= tokens.size()) {
+            return null;
+        }
+        Token token = tokens.get(next++);
+        switch (token.kind()) {
+            case LPAREN -> {
+                Query q = parseOr();
+                if (peek(Kind.RPAREN)) {
+                    next++;
+                }
+                return q;
+            }
+            case DATE -> {
+                return dateRange(token.text());
+            }
+            case WORD, PHRASE -> {
+                List<String> terms = Tokenizer.tokenize(token.text());
+                if (terms.isEmpty()) {
+                    return null;
+                }
+                // a word like "e-mail" tokenizes into several terms and is matched as a phrase
+                return terms.size() == 1
+                        ? new TermQuery(token.field(), terms.get(0))
+                        : new PhraseQuery(token.field(), terms);
+            }
+            default -> {
+                // operator in operand position (e.g. "AND AND"); ignore it
+                return null;
+            }
+        }
+    }
+
+    private boolean peek(Kind kind) {
+        return next < tokens.size() && tokens.get(next).kind() == kind;
+    }
+
+    private static List<Token> lex(String query) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        int length = query.length();
+        while (i < length) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                tokens.add(new Token(Kind.LPAREN, Field.ANY, "("));
+                i++;
+            } else if (c == ')') {
+                tokens.add(new Token(Kind.RPAREN, Field.ANY, ")"));
+                i++;
+            } else if (c == '-' && i + 1 < length && !Character.isWhitespace(query.charAt(i + 1))) {
+                tokens.add(new Token(Kind.NOT, Field.ANY, "-"));
+                i++;
+            } else {
+                Field field = Field.ANY;
+                for (int f = 0; f < FIELD_PREFIXES.length; f++) {
+                    String prefix = FIELD_PREFIXES[f];
+                    if (query.regionMatches(true, i, prefix, 0, prefix.length())
+                            && i + prefix.length() < length
+                            && !Character.isWhitespace(query.charAt(i + prefix.length()))) {
+                        field = FIELDS[f];
+                        i += prefix.length();
+                        break;
+                    }
+                }
+
+                if (query.charAt(i) == '"') {
+                    int close = query.indexOf('"', i + 1);
+                    int end = close < 0 ? length : close;
+                    tokens.add(new Token(Kind.PHRASE, field, query.substring(i + 1, end)));
+                    i = close < 0 ? length : close + 1;
+                    continue;
+                }
+
+                int start = i;
+                while (i < length && !Character.isWhitespace(query.charAt(i))
+                        && query.charAt(i) != '(' && query.charAt(i) != ')' && query.charAt(i) != '"') {
+                    i++;
+                }
+                String word = query.substring(start, i);
+                if (field == Field.ANY && word.equals("AND")) {
+                    tokens.add(new Token(Kind.AND, field, word));
+                } else if (field == Field.ANY && word.equals("OR")) {
+                    tokens.add(new Token(Kind.OR, field, word));
+                } else if (field == Field.ANY && word.equals("NOT")) {
+                    tokens.add(new Token(Kind.NOT, field, word));
+                } else if (field == Field.ANY && dateRange(word) != null) {
+                    tokens.add(new Token(Kind.DATE, field, word));
+                } else if (!word.isEmpty()) {
+                    tokens.add(new Token(Kind.WORD, field, word));
+                }
+            }
+        }
+        return tokens;
+    }
+
+    // created:/updated: followed by an optional comparison and an ISO date or instant;
+    // null if the word is not a well-formed date filter
+    private static DateRangeQuery dateRange(String word) {
+        boolean created;
+        String rest;
+        if (word.regionMatches(true, 0, "created:", 0, 8)) {
+            created = true;
+            rest = word.substring(8);
+        } else if (word.regionMatches(true, 0, "updated:", 0, 8)) {
+            created = false;
+            rest = word.substring(8);
+        } else {
+            return null;
+        }
+
+        String op = rest.startsWith(">=") || rest.startsWith("<=") ? rest.substring(0, 2)
+                : rest.startsWith(">") || rest.startsWith("<") ? rest.substring(0, 1)
+                : "";
+        String value = rest.substring(op.length());
+
+        // [start, end) covers the day (or second) the user wrote
+        long start;
+        long end;
+        try {
+            if (value.indexOf('T') >= 0) {
+                start = Instant.parse(value).getEpochSecond();
+                end = start + 1;
+            } else {
+                LocalDate day = LocalDate.parse(value);
+                ZoneId zone = ZoneId.systemDefault();
+                start = day.atStartOfDay(zone).toEpochSecond();
+                end = day.plusDays(1).atStartOfDay(zone).toEpochSecond();
+            }
+        } catch (DateTimeException e) {
+            return null;
+        }
+
+        return switch (op) {
+            case ">" -> new DateRangeQuery(created, end, Long.MAX_VALUE);
+            case ">=" -> new DateRangeQuery(created, start, Long.MAX_VALUE);
+            case "<" -> new DateRangeQuery(created, Long.MIN_VALUE, start);
+            case "<=" -> new DateRangeQuery(created, Long.MIN_VALUE, end);
+            default -> new DateRangeQuery(created, start, end);
+        };
+    }
+}
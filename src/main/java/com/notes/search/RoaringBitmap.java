@@ -0,0 +1,231 @@
+package com.notes.search;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Compressed set of non-negative ints, split into 65536-wide chunks keyed by the high
+// 16 bits. Each chunk is a sorted array when sparse and a 1024-word bitmap when dense,
+// so set algebra on large, dense sets is word-at-a-time and sparse sets stay small.
+// and/or/andNot return new bitmaps and never modify their arguments.
+public final class RoaringBitmap {
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RoaringBitmap() {
+        this(4);
+    }
+
+    private RoaringBitmap(int capacity) {
+        this.keys = new char[capacity];
+        this.containers = new Container[capacity];
+    }
+
+    public static RoaringBitmap of(int... values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    // Builds from ascending, distinct values in one pass
+    public static RoaringBitmap fromSorted(int[] values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        int i = 0;
+        while (i < values.length) {
+            char key = (char) (values[i] >>> 16);
+            int end = i;
+            while (end < values.length && (values[end] >>> 16) == key) {
+                end++;
+            }
+            Container container;
+            if (end - i > Container.ARRAY_MAX) {
+                BitmapContainer dense = new BitmapContainer();
+                for (int k = i; k < end; k++) {
+                    dense.set((char) values[k]);
+                }
+                container = dense;
+            } else {
+                ArrayContainer sparse = new ArrayContainer(end - i);
+                for (int k = i; k < end; k++) {
+                    sparse.append((char) values[k]);
+                }
+                container = sparse;
+            }
+            bitmap.append(key, container);
+            i = end;
+        }
+        return bitmap;
+    }
+
+    // All values in [from, to)
+    public static RoaringBitmap range(int from, int to) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int start = from; start < to; ) {
+            int key = start >>> 16;
+            int chunkEnd = Math.min(to, (key + 1) << 16);
+            bitmap.append((char) key, Container.full(start & 0xFFFF, chunkEnd - (key << 16)));
+            start = chunkEnd;
+        }
+        return bitmap;
+    }
+
+    public void add(int value) {
+        char key = (char) (value >>> 16);
+        int index = indexOf(key);
+        if (index >= 0) {
+            containers[index] = containers[index].add((char) value);
+        } else {
+            ArrayContainer container = new ArrayContainer(4);
+            container.append((char) value);
+            insert(-index - 1, key, container);
+        }
+    }
+
+    public void remove(int value) {
+        int index = indexOf((char) (value >>> 16));
+        if (index < 0) {
+            return;
+        }
+        containers[index] = containers[index].remove((char) value);
+        if (containers[index].cardinality() == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            size--;
+        }
+    }
+
+    public boolean contains(int value) {
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public RoaringBitmap and(RoaringBitmap other) {
+        RoaringBitmap out = new RoaringBitmap(Math.min(size, other.size) + 1);
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                out.appendIfNotEmpty(keys[i], containers[i].and(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    public RoaringBitmap or(RoaringBitmap other) {
+        RoaringBitmap out = new RoaringBitmap(size + other.size + 1);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                out.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i == size || keys[i] > other.keys[j]) {
+                out.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                out.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    public RoaringBitmap andNot(RoaringBitmap other) {
+        RoaringBitmap out = new RoaringBitmap(size + 1);
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            if (j < other.size && other.keys[j] == keys[i]) {
+                out.appendIfNotEmpty(keys[i], containers[i].andNot(other.containers[j]));
+            } else {
+                out.append(keys[i], containers[i].copy());
+            }
+        }
+        return out;
+    }
+
+    // Ascending order
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    public int[] toArray() {
+        int[] out = new int[cardinality()];
+        int[] n = {0};
+        forEach(v -> out[n[0]++] = v);
+        return out;
+    }
+
+    private int indexOf(char key) {
+        // most bitmaps here have a handful of chunks; the last one is the usual target
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void appendIfNotEmpty(char key, Container container) {
+        if (container.cardinality() > 0) {
+            append(key, container);
+        }
+    }
+
+    private void append(char key, Container container) {
+        insert(size, key, container);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(4, size * 2));
+            containers = Arrays.copyOf(containers, Math.max(4, size * 2));
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RoaringBitmap other)) return false;
+        return Arrays.equals(toArray(), other.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
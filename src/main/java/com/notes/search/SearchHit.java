@@ -0,0 +1,103 @@
+package com.notes.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.notes.model.Note;
+
+// A matching note with where it matched and a short body excerpt around the first match
+public class SearchHit {
+
+    static final int CONTEXT_BEFORE = 40;
+    static final int SNIPPET_LENGTH = 160;
+
+    private final Note note;
+    private final List<MatchSpan> titleMatches;
+    private final List<MatchSpan> bodyMatches;
+    private final String snippet;
+    private final List<MatchSpan> snippetMatches;
+
+    private SearchHit(Note note,
+                      List<MatchSpan> titleMatches,
+                      List<MatchSpan> bodyMatches,
+                      String snippet,
+                      List<MatchSpan> snippetMatches) {
+        this.note = note;
+        this.titleMatches = titleMatches;
+        this.bodyMatches = bodyMatches;
+        this.snippet = snippet;
+        this.snippetMatches = snippetMatches;
+    }
+
+    // Cuts the snippet straight out of the body around the first body match, so the
+    // cost depends on the snippet length and not on the size of the note
+    static SearchHit of(Note note, List<MatchSpan> titleMatches, List<MatchSpan> bodyMatches) {
+        CharSequence body = note.getText() == null ? "" : note.getText();
+        int anchor = bodyMatches.isEmpty() ? 0 : bodyMatches.get(0).start();
+
+        int from = Math.max(0, anchor - CONTEXT_BEFORE);
+        int to = Math.min(body.length(), from + SNIPPET_LENGTH);
+        from = wordStart(body, from, anchor);
+        to = wordEnd(body, to, anchor);
+
+        String prefix = from > 0 ? "…" : "";
+        String suffix = to < body.length() ? "…" : "";
+        String snippet = prefix + body.subSequence(from, to).toString().replace('\n', ' ') + suffix;
+
+        List<MatchSpan> snippetMatches = new ArrayList<>();
+        for (MatchSpan span : bodyMatches) {
+            if (span.start() >= from && span.end() <= to) {
+                int shift = prefix.length() - from;
+                snippetMatches.add(new MatchSpan(span.start() + shift, span.end() + shift));
+            }
+        }
+        return new SearchHit(note, titleMatches, bodyMatches, snippet, snippetMatches);
+    }
+
+    // Moves from forward past a partial word, without crossing the anchor
+    private static int wordStart(CharSequence text, int from, int anchor) {
+        if (from == 0) {
+            return 0;
+        }
+        for (int i = from; i < anchor && i < from + 15; i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return from;
+    }
+
+    // Moves to back before a partial word, without crossing the anchor
+    private static int wordEnd(CharSequence text, int to, int anchor) {
+        if (to == text.length()) {
+            return to;
+        }
+        for (int i = to; i > anchor && i > to - 15; i--) {
+            if (Character.isWhitespace(text.charAt(i - 1))) {
+                return i - 1;
+            }
+        }
+        return to;
+    }
+
+    public Note getNote() {
+        return note;
+    }
+
+    public List<MatchSpan> getTitleMatches() {
+        return titleMatches;
+    }
+
+    public List<MatchSpan> getBodyMatches() {
+        return bodyMatches;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    // Match ranges within getSnippet()
+    public List<MatchSpan> getSnippetMatches() {
+        return snippetMatches;
+    }
+}
@@ -1,16 +1,60 @@
 package com.notes.search;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinTask;
 
+import com.notes.jfr.SearchEvent;
+import com.notes.metrics.Counter;
+import com.notes.metrics.LatencyHistogram;
+import com.notes.metrics.MetricsRegistry;
 import com.notes.model.Note;
 
 // Singleton Pattern: SearchIndex
 public class SearchIndex {
 
+    public static final int MAX_FUZZY_EDITS = 2;
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 20_000;
+    // cap on dictionary terms a single query word may expand to when highlighting
+    private static final int MAX_HIGHLIGHT_TERMS = 64;
+    // update() rebuilds from scratch once holes outnumber this and a quarter of the live docs
+    private static final int MIN_HOLES_TO_COMPACT = 1024;
+
+    private static final LatencyHistogram SEARCH = MetricsRegistry.getDefault().histogram("search.query");
+    private static final LatencyHistogram INDEX = MetricsRegistry.getDefault().histogram("search.index");
+    private static final Counter HITS = MetricsRegistry.getDefault().counter("search.hits");
+
     private static final SearchIndex INSTANCE = new SearchIndex();
+    // notes by doc ordinal; null where a note was changed (and re-added at the end) or removed
     private List<Note> snapshot = new ArrayList<>();
+    private int holes;
+    private TermDictionary dictionary = TermDictionary.EMPTY;
+    // built on first use by a date filter and dropped when docs change
+    private DateIndex createdIndex;
+    private DateIndex updatedIndex;
+    private List<SearchShard> shards = List.of();
+    private Map<String, Integer> docsById = new HashMap<>();
+    // bumped on every change so callers can tell whether the index still holds what they gave it
+    private long version;
+
+    private int shardCount = Runtime.getRuntime().availableProcessors();
+    // below this many notes the scan stays on the calling thread
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    // term ordinals to highlight for the most recent query, valid for highlightVersion
+    private String highlightQuery;
+    private int[] highlightOrds = new int[0];
+    private long highlightVersion = -1;
+
     private SearchIndex() {
     }
 
@@ -19,26 +63,396 @@ public class SearchIndex {
     }
 
     public synchronized void index(List<Note> notes) {
-        if (notes == null) {
-            this.snapshot = new ArrayList<>();
+        long start = System.nanoTime();
+        List<Note> copy = notes == null ? new ArrayList<>() : new ArrayList<>(notes);
+        install(copy, TermDictionary.build(copy));
+        INDEX.recordSince(start);
+    }
+
+    // notes may contain holes (null) when restored from a file
+    private void install(List<Note> notes, TermDictionary dictionary) {
+        Map<String, Integer> byId = new HashMap<>();
+        int empty = 0;
+        for (int doc = 0; doc < notes.size(); doc++) {
+            Note note = notes.get(doc);
+            if (note == null) {
+                empty++;
+            } else {
+                byId.put(note.getId(), doc);
+            }
+        }
+        this.snapshot = notes;
+        this.holes = empty;
+        this.dictionary = dictionary;
+        this.createdIndex = null;
+        this.updatedIndex = null;
+        this.docsById = byId;
+        this.shards = buildShards(notes, shardCount);
+        this.version++;
+    }
+
+    // Applies notes changed since the index was built, keyed by id; a null note means the
+    // note was purged. Only these notes are tokenized: a changed note gets a new doc at the
+    // end and its old doc becomes a hole. Trashed notes are dropped, as in listNotes().
+    // Returns the new version, or -1 without changing anything if the index is no longer at
+    // expectedVersion (someone else re-indexed it) and the caller must index() instead.
+    public synchronized long update(long expectedVersion, Map<String, Note> changes) {
+        if (expectedVersion != version) {
+            return -1;
+        }
+        if (changes.isEmpty()) {
+            return version;
+        }
+        long start = System.nanoTime();
+        int firstDoc = snapshot.size();
+        for (Map.Entry<String, Note> change : changes.entrySet()) {
+            Integer doc = docsById.remove(change.getKey());
+            if (doc != null) {
+                snapshot.set(doc, null);
+                holes++;
+            }
+            Note note = change.getValue();
+            if (note != null && !note.isDeleted()) {
+                docsById.put(note.getId(), snapshot.size());
+                snapshot.add(note);
+            }
+        }
+
+        if (holes >= MIN_HOLES_TO_COMPACT && holes > (snapshot.size() - holes) / 4) {
+            List<Note> live = liveNotes();
+            install(live, TermDictionary.build(live));
         } else {
-            this.snapshot = new ArrayList<>(notes);
+            dictionary.append(snapshot, firstDoc);
+            createdIndex = null;
+            updatedIndex = null;
+            shards = buildShards(snapshot, shardCount);
+            version++;
+        }
+        INDEX.recordSince(start);
+        return version;
+    }
+
+    private List<Note> liveNotes() {
+        List<Note> live = new ArrayList<>(snapshot.size() - holes);
+        for (Note note : snapshot) {
+            if (note != null) {
+                live.add(note);
+            }
+        }
+        return live;
+    }
+
+    private QueryContext context() {
+        if (createdIndex == null) {
+            createdIndex = DateIndex.build(snapshot, Note::getCreatedAt);
+            updatedIndex = DateIndex.build(snapshot, Note::getUpdatedAt);
+        }
+        return new QueryContext(dictionary, createdIndex, updatedIndex, snapshot.size());
+    }
+
+    // Persists the index; sequence is the repository generation the snapshot was built at
+    public synchronized void writeTo(Path file, long sequence) throws IOException {
+        List<String> ids = new ArrayList<>(snapshot.size());
+        for (Note note : snapshot) {
+            // holes get an id no note has, so restore() drops their postings
+            ids.add(note == null ? "" : note.getId());
+        }
+        IndexFile.write(file, sequence, ids, dictionary);
+    }
+
+    // Loads an index written by writeTo and indexes only the notes whose revision is newer
+    // than it, or that it has never seen; their old docs become holes. The file is read in one
+    // go and postings are decoded as queries use them, so beyond the read this costs the size
+    // of the term table and of the changed notes. Falls back to a full rebuild if the file is missing, unreadable,
+    // or newer than generation (the repository's current one), since then revisions cannot
+    // be compared with it. Returns how many notes had to be tokenized.
+    public synchronized int restore(Path file, List<Note> notes, long generation) {
+        if (notes == null) {
+            notes = List.of();
+        }
+        IndexFile.Contents contents;
+        try {
+            contents = IndexFile.read(file);
+        } catch (IOException e) {
+            index(notes);
+            return notes.size();
+        }
+        if (contents.sequence() > generation) {
+            index(notes);
+            return notes.size();
+        }
+
+        Map<String, Note> pending = new LinkedHashMap<>();
+        for (Note note : notes) {
+            pending.put(note.getId(), note);
+        }
+
+        String[] docIds = contents.docIds();
+        List<Note> docs = new ArrayList<>(Math.max(docIds.length, notes.size()));
+        for (String id : docIds) {
+            Note note = pending.get(id);
+            if (note != null && note.getRevision() <= contents.sequence()) {
+                pending.remove(id);
+                docs.add(note);
+            } else {
+                docs.add(null);
+            }
+        }
+        int firstNewDoc = docs.size();
+        docs.addAll(pending.values());
+
+        install(docs, contents.dictionary());
+        dictionary.append(docs, firstNewDoc);
+        return docs.size() - firstNewDoc;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    private static List<SearchShard> buildShards(List<Note> notes, int count) {
+        List<SearchShard> result = new ArrayList<>();
+        int perShard = Math.max(1, (notes.size() + count - 1) / count);
+        for (int from = 0; from < notes.size(); from += perShard) {
+            result.add(new SearchShard(notes, from, Math.min(notes.size(), from + perShard)));
+        }
+        return result;
+    }
+
+    public synchronized int getShardCount() {
+        return shardCount;
+    }
+
+    public synchronized void setShardCount(int shardCount) {
+        if (shardCount > 0 && shardCount != this.shardCount) {
+            this.shardCount = shardCount;
+            this.shards = buildShards(snapshot, shardCount);
+        }
+    }
+
+    public synchronized int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public synchronized void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold >= 0) {
+            this.parallelThreshold = parallelThreshold;
         }
     }
 
     public synchronized List<Note> search(String query) {
+        long start = System.nanoTime();
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        List<Note> results = find(query);
+        SEARCH.recordSince(start);
+        HITS.add(results.size());
+        if (event.shouldCommit()) {
+            event.queryLength = query == null ? 0 : query.length();
+            event.structured = query != null && QueryParser.isStructured(query);
+            event.indexedNotes = snapshot.size() - holes;
+            event.hits = results.size();
+            event.commit();
+        }
+        return results;
+    }
+
+    // Abandons a search whose thread was interrupted (LiveSearch does this when a newer query
+    // replaces it), so it gives up the index monitor instead of running to completion
+    static void checkCancelled(Thread thread) {
+        if (thread.isInterrupted()) {
+            throw new CancellationException("search interrupted");
+        }
+    }
+
+    private List<Note> find(String query) {
+        Thread caller = Thread.currentThread();
+        checkCancelled(caller);
         if (query == null || query.isBlank()) {
-            return new ArrayList<>(snapshot);
+            return liveNotes();
+        }
+
+        if (QueryParser.isStructured(query)) {
+            return evaluate(QueryParser.parse(query));
+        }
+
+        String q = query.toLowerCase(Locale.ROOT);
+
+        if (snapshot.size() < parallelThreshold || shards.size() < 2) {
+            List<Note> results = new ArrayList<>();
+            for (SearchShard shard : shards) {
+                shard.scan(q, results, caller);
+            }
+            return results;
+        }
+
+        // Scan shards in parallel, then merge in shard order so results keep index order.
+        // The tasks watch the caller, since interrupting it does not reach the pool threads.
+        List<ForkJoinTask<List<Note>>> tasks = new ArrayList<>(shards.size());
+        for (SearchShard shard : shards) {
+            tasks.add(ForkJoinTask.adapt(() -> shard.scan(q, caller)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+
+        List<Note> results = new ArrayList<>();
+        for (ForkJoinTask<List<Note>> task : tasks) {
+            results.addAll(task.join());
+        }
+        return results;
+    }
+
+    // Operators, phrases and fields are answered from the positional postings
+    private List<Note> evaluate(Query query) {
+        RoaringBitmap docs = query.docs(context());
+        List<Note> results = new ArrayList<>(docs.cardinality());
+        addLive(docs, results);
+        return results;
+    }
+
+    // Holes still have postings until the next rebuild; they are skipped here
+    private void addLive(RoaringBitmap docs, List<Note> results) {
+        docs.forEach(doc -> {
+            Note note = snapshot.get(doc);
+            if (note != null) {
+                results.add(note);
+            }
+        });
+    }
+
+    // Where query matched in note, read from the stored term offsets rather than by
+    // scanning the note. Returns a hit without matches if the note is not indexed.
+    public synchronized SearchHit highlight(String query, Note note) {
+        List<MatchSpan> title = new ArrayList<>();
+        List<MatchSpan> body = new ArrayList<>();
+        Integer doc = note == null ? null : docsById.get(note.getId());
+        if (doc != null && query != null && !query.isBlank()) {
+            int titleLength = note.getTitle() == null ? 0 : note.getTitle().length();
+            int bodyLength = note.getText() == null ? 0 : note.getText().length();
+            for (int ord : highlightTerms(query)) {
+                int index = dictionary.indexOf(ord, doc);
+                if (index < 0) {
+                    continue;
+                }
+                int termLength = dictionary.term(ord).length();
+                int[] positions = dictionary.positions(ord, index);
+                int[] offsets = dictionary.offsets(ord, index);
+                for (int k = 0; k < positions.length; k++) {
+                    boolean inTitle = (positions[k] & 1) == TermDictionary.TITLE;
+                    int fieldLength = inTitle ? titleLength : bodyLength;
+                    // the note may have been edited since it was indexed
+                    if (offsets[k] < fieldLength) {
+                        MatchSpan span = new MatchSpan(offsets[k], Math.min(fieldLength, offsets[k] + termLength));
+                        (inTitle ? title : body).add(span);
+                    }
+                }
+            }
+            title.sort((a, b) -> Integer.compare(a.start(), b.start()));
+            body.sort((a, b) -> Integer.compare(a.start(), b.start()));
         }
+        return SearchHit.of(note, title, body);
+    }
+
+    private int[] highlightTerms(String query) {
+        if (query.equals(highlightQuery) && highlightVersion == version) {
+            return highlightOrds;
+        }
+        Set<Integer> ords = new LinkedHashSet<>();
+        if (QueryParser.isStructured(query)) {
+            Set<String> terms = new LinkedHashSet<>();
+            QueryParser.parse(query).collectTerms(terms);
+            for (String term : terms) {
+                int ord = dictionary.find(term);
+                if (ord >= 0) {
+                    ords.add(ord);
+                }
+            }
+        } else {
+            for (String word : Tokenizer.tokenize(query)) {
+                // plain queries are substrings, so a word also matches terms it prefixes
+                int from = dictionary.ceiling(word, 0);
+                int to = Math.min(dictionary.ceiling(word + Character.MAX_VALUE, from), from + MAX_HIGHLIGHT_TERMS);
+                for (int ord = from; ord < to; ord++) {
+                    ords.add(ord);
+                }
+                if (from == to) {
+                    // no literal match: the result likely came from the fuzzy fallback
+                    ords.addAll(dictionary.intersect(new LevenshteinAutomaton(word, autoFuzziness(word))));
+                }
+            }
+        }
+        highlightQuery = query;
+        highlightOrds = ords.stream().mapToInt(Integer::intValue).toArray();
+        highlightVersion = version;
+        return highlightOrds;
+    }
 
+    // True if search() will treat query as a boolean / phrase / field query rather than
+    // a plain substring
+    public static boolean isStructuredQuery(String query) {
+        return QueryParser.isStructured(query);
+    }
+
+    // Narrows an earlier result set to the notes that also contain query; valid when both
+    // are plain queries and query contains the one that produced candidates
+    public List<Note> refine(String query, List<Note> candidates) {
+        if (candidates == null) {
+            return new ArrayList<>();
+        }
+        if (query == null || query.isBlank()) {
+            return new ArrayList<>(candidates);
+        }
         String q = query.toLowerCase(Locale.ROOT);
+        List<Note> results = new ArrayList<>();
+        Thread caller = Thread.currentThread();
+        int checked = 0;
+        for (Note n : candidates) {
+            if (checked++ % SearchShard.CANCEL_CHECK_INTERVAL == 0) {
+                checkCancelled(caller);
+            }
+            if (SearchShard.containsIgnoreCase(n.getTitle(), q) || SearchShard.containsIgnoreCase(n.getText(), q)) {
+                results.add(n);
+            }
+        }
+        return results;
+    }
+
+    // Typo-tolerant search with an edit budget picked per word by autoFuzziness
+    public synchronized List<Note> searchFuzzy(String query) {
+        return searchFuzzy(query, -1);
+    }
+
+    // Typo-tolerant search: every word of the query must match some indexed term
+    // within maxEdits edits (clamped to MAX_FUZZY_EDITS; negative means automatic)
+    public synchronized List<Note> searchFuzzy(String query, int maxEdits) {
+        if (query == null || query.isBlank()) {
+            return liveNotes();
+        }
 
-        return snapshot.stream()
-                .filter(n -> {
-                    String t = n.getTitle() == null ? "" : n.getTitle().toLowerCase(Locale.ROOT);
-                    String c = n.getContent() == null ? "" : n.getContent().toLowerCase(Locale.ROOT);
-                    return t.contains(q) || c.contains(q);
-                })
-                .toList();
+        Thread caller = Thread.currentThread();
+        RoaringBitmap hits = null;
+        for (String word : Tokenizer.tokenize(query)) {
+            checkCancelled(caller);
+            int edits = maxEdits < 0 ? autoFuzziness(word) : Math.min(maxEdits, MAX_FUZZY_EDITS);
+            RoaringBitmap docs = new RoaringBitmap();
+            for (int ord : dictionary.intersect(new LevenshteinAutomaton(word, edits))) {
+                checkCancelled(caller);
+                docs = docs.or(dictionary.bitmap(ord));
+            }
+            hits = hits == null ? docs : hits.and(docs);
+        }
+
+        List<Note> results = new ArrayList<>();
+        if (hits != null) {
+            addLive(hits, results);
+        }
+        return results;
+    }
+
+    // Edit budget scaled to word length: short words must match exactly
+    public static int autoFuzziness(String word) {
+        if (word == null || word.length() <= 2) {
+            return 0;
+        }
+        return word.length() <= 5 ? 1 : MAX_FUZZY_EDITS;
     }
 }
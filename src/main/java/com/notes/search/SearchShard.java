@@ -0,0 +1,77 @@
+package com.notes.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.notes.model.Note;
+import com.notes.model.Rope;
+
+// One contiguous range of the index's docs. Text is matched case-insensitively in place,
+// so the index keeps no lowercased copy of the notes.
+final class SearchShard {
+
+    // docs scanned between checks for cancellation
+    static final int CANCEL_CHECK_INTERVAL = 512;
+
+    private final List<Note> notes;
+    private final int from;
+    private final int to;
+
+    SearchShard(List<Note> notes, int from, int to) {
+        this.notes = notes;
+        this.from = from;
+        this.to = to;
+    }
+
+    int size() {
+        return to - from;
+    }
+
+    // query must already be lowercased; the scan is abandoned once owner is interrupted
+    List<Note> scan(String query, Thread owner) {
+        List<Note> hits = new ArrayList<>();
+        scan(query, hits, owner);
+        return hits;
+    }
+
+    // Appends matches to hits, so a sequential search fills one list instead of one per shard
+    void scan(String query, List<Note> hits, Thread owner) {
+        for (int i = from; i < to; i++) {
+            if ((i - from) % CANCEL_CHECK_INTERVAL == 0) {
+                SearchIndex.checkCancelled(owner);
+            }
+            Note note = notes.get(i);
+            // null: a hole left by a changed or removed note
+            if (note != null && (containsIgnoreCase(note.getTitle(), query)
+                    || containsIgnoreCase(note.getText(), query))) {
+                hits.add(note);
+            }
+        }
+    }
+
+    // True if text contains query (already lowercased) ignoring case, without lowercasing text
+    static boolean containsIgnoreCase(String text, String query) {
+        if (text == null) {
+            return query.isEmpty();
+        }
+        int length = query.length();
+        if (length == 0) {
+            return true;
+        }
+        char first = query.charAt(0);
+        char upper = Character.toUpperCase(first);
+        for (int i = 0, last = text.length() - length; i <= last; i++) {
+            char c = text.charAt(i);
+            if ((c == first || c == upper || Character.toLowerCase(c) == first)
+                    && text.regionMatches(true, i, query, 0, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The same for a note body, searched leaf by leaf so the rope is never flattened
+    static boolean containsIgnoreCase(Rope text, String query) {
+        return text == null ? query.isEmpty() : text.indexOfIgnoreCase(query) >= 0;
+    }
+}
@@ -0,0 +1,357 @@
+package com.notes.search;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.notes.model.Note;
+
+// Sorted array of distinct terms. Each term has the ordinals of the notes containing it
+// and, per note, its positions encoded as (wordPosition << 1 | field) so a phrase is a
+// run of positions two apart and the field is the low bit. The character offset of each
+// occurrence in its field is kept alongside, in the same order, for highlighting.
+final class TermDictionary {
+
+    static final int TITLE = 0;
+    static final int BODY = 1;
+
+    static final TermDictionary EMPTY =
+            new TermDictionary(new String[0], new int[0][], new int[0][][], new int[0][][]);
+
+    // grown in place by append(); only used under the SearchIndex monitor
+    private String[] terms;
+    private int[][] postings;
+    private int[][][] positions;
+    private int[][][] offsets;
+    // postings as bitmaps, built on first use by a query
+    private RoaringBitmap[] bitmaps;
+
+    // For a dictionary read from an index file: the mapped file and where each term's
+    // postings start in it. A term's postings are decoded the first time they are used,
+    // so opening an index costs the size of its term table, not of its postings.
+    private ByteBuffer source;
+    private int[] sourceOffsets;
+    private int sourceDocs;
+
+    TermDictionary(String[] terms, int[][] postings, int[][][] positions, int[][][] offsets) {
+        this.terms = terms;
+        this.postings = postings;
+        this.positions = positions;
+        this.offsets = offsets;
+        this.bitmaps = new RoaringBitmap[terms.length];
+    }
+
+    // Postings stay encoded in source until used; docCount bounds the doc ordinals they hold
+    static TermDictionary mapped(String[] terms, ByteBuffer source, int[] sourceOffsets, int docCount) {
+        TermDictionary dictionary = new TermDictionary(terms,
+                new int[terms.length][], new int[terms.length][][], new int[terms.length][][]);
+        dictionary.source = source;
+        dictionary.sourceOffsets = sourceOffsets;
+        dictionary.sourceDocs = docCount;
+        return dictionary;
+    }
+
+    private void load(int ord) {
+        if (postings[ord] == null) {
+            IndexFile.Postings decoded = IndexFile.readPostings(source, sourceOffsets[ord], sourceDocs);
+            postings[ord] = decoded.docs();
+            positions[ord] = decoded.positions();
+            offsets[ord] = decoded.offsets();
+        }
+    }
+
+    static TermDictionary build(List<Note> notes) {
+        Map<String, PostingsBuilder> byTerm = new HashMap<>();
+        addNotes(byTerm, notes, 0);
+
+        String[] terms = byTerm.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        int[][] postings = new int[terms.length][];
+        int[][][] positions = new int[terms.length][][];
+        int[][][] offsets = new int[terms.length][][];
+        for (int i = 0; i < terms.length; i++) {
+            PostingsBuilder builder = byTerm.get(terms[i]);
+            postings[i] = builder.docs();
+            positions[i] = builder.positions();
+            offsets[i] = builder.offsets();
+        }
+        return new TermDictionary(terms, postings, positions, offsets);
+    }
+
+    // Adds the notes from firstDoc onward. Their ordinals are above every doc already here,
+    // so existing postings are extended at the end; new terms are merged in with one pass
+    // over the term array. Only these notes are tokenized.
+    void append(List<Note> notes, int firstDoc) {
+        Map<String, PostingsBuilder> added = new HashMap<>();
+        addNotes(added, notes, firstDoc);
+        if (added.isEmpty()) {
+            return;
+        }
+        String[] addedTerms = added.keySet().toArray(new String[0]);
+        Arrays.sort(addedTerms);
+
+        int fresh = 0;
+        for (String term : addedTerms) {
+            if (find(term) < 0) {
+                fresh++;
+            }
+        }
+        if (fresh > 0) {
+            insertTerms(addedTerms, fresh);
+        }
+        for (String term : addedTerms) {
+            int ord = find(term);
+            load(ord);
+            PostingsBuilder builder = added.get(term);
+            postings[ord] = concat(postings[ord], builder.docs());
+            positions[ord] = concat(positions[ord], builder.positions());
+            offsets[ord] = concat(offsets[ord], builder.offsets());
+            bitmaps[ord] = null;
+        }
+    }
+
+    // Merges the terms of sorted that are not here yet, each with empty postings
+    private void insertTerms(String[] sorted, int fresh) {
+        int size = terms.length + fresh;
+        String[] newTerms = new String[size];
+        int[][] newPostings = new int[size][];
+        int[][][] newPositions = new int[size][][];
+        int[][][] newOffsets = new int[size][][];
+        RoaringBitmap[] newBitmaps = new RoaringBitmap[size];
+        int[] newSourceOffsets = source == null ? null : new int[size];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < size; k++) {
+            int cmp = i == terms.length ? 1
+                    : j == sorted.length ? -1
+                    : terms[i].compareTo(sorted[j]);
+            if (cmp <= 0) {
+                newTerms[k] = terms[i];
+                newPostings[k] = postings[i];
+                newPositions[k] = positions[i];
+                newOffsets[k] = offsets[i];
+                newBitmaps[k] = bitmaps[i];
+                if (source != null) {
+                    newSourceOffsets[k] = sourceOffsets[i];
+                }
+                i++;
+                if (cmp == 0) {
+                    j++;
+                }
+            } else {
+                newTerms[k] = sorted[j++];
+                newPostings[k] = new int[0];
+                newPositions[k] = new int[0][];
+                newOffsets[k] = new int[0][];
+            }
+        }
+        terms = newTerms;
+        postings = newPostings;
+        positions = newPositions;
+        offsets = newOffsets;
+        bitmaps = newBitmaps;
+        sourceOffsets = newSourceOffsets;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static int[][] concat(int[][] a, int[][] b) {
+        int[][] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    // Notes that are null (holes left by changed or removed notes) are skipped
+    private static void addNotes(Map<String, PostingsBuilder> byTerm, List<Note> notes, int fromDoc) {
+        Map<String, long[]> occurrences = new HashMap<>();
+        for (int doc = fromDoc; doc < notes.size(); doc++) {
+            Note note = notes.get(doc);
+            if (note == null) {
+                continue;
+            }
+            occurrences.clear();
+            Tokenizer.tokenize(note.getTitle(), collector(occurrences, TITLE));
+            // from the rope's chunks: a body is not flattened to be indexed
+            Tokenizer.tokenize(note.getText(), collector(occurrences, BODY));
+            for (Map.Entry<String, long[]> entry : occurrences.entrySet()) {
+                long[] buffer = entry.getValue();
+                int count = (int) buffer[0];
+                long[] sorted = Arrays.copyOfRange(buffer, 1, count + 1);
+                // title and body positions interleave in encoded order
+                Arrays.sort(sorted);
+                int[] encoded = new int[count];
+                int[] starts = new int[count];
+                for (int k = 0; k < count; k++) {
+                    encoded[k] = (int) (sorted[k] >>> 32);
+                    starts[k] = (int) sorted[k];
+                }
+                byTerm.computeIfAbsent(entry.getKey(), t -> new PostingsBuilder()).add(doc, encoded, starts);
+            }
+        }
+    }
+
+    // buffer[0] holds the count; each occurrence follows as (encoded position << 32 | offset)
+    private static Tokenizer.TokenSink collector(Map<String, long[]> occurrences, int field) {
+        return (term, position, start, end) -> {
+            long[] buffer = occurrences.get(term);
+            if (buffer == null) {
+                buffer = new long[4];
+            } else if (buffer[0] + 1 == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[(int) ++buffer[0]] = (long) (position << 1 | field) << 32 | start;
+            occurrences.put(term, buffer);
+        };
+    }
+
+    int size() {
+        return terms.length;
+    }
+
+    String term(int ord) {
+        return terms[ord];
+    }
+
+    int[] postings(int ord) {
+        load(ord);
+        return postings[ord];
+    }
+
+    // postings(ord) as a bitmap; shared, callers must not modify it
+    RoaringBitmap bitmap(int ord) {
+        RoaringBitmap bitmap = bitmaps[ord];
+        if (bitmap == null) {
+            bitmap = RoaringBitmap.fromSorted(postings(ord));
+            bitmaps[ord] = bitmap;
+        }
+        return bitmap;
+    }
+
+    // Encoded positions of the term in the index-th doc of postings(ord)
+    int[] positions(int ord, int index) {
+        load(ord);
+        return positions[ord][index];
+    }
+
+    // Character offsets (within the field) matching positions(ord, index)
+    int[] offsets(int ord, int index) {
+        load(ord);
+        return offsets[ord][index];
+    }
+
+    // Index of doc within postings(ord), or -1
+    int indexOf(int ord, int doc) {
+        int pos = Arrays.binarySearch(postings(ord), doc);
+        return pos >= 0 ? pos : -1;
+    }
+
+    // Ordinal of term, or -1 if it is not in the dictionary
+    int find(String term) {
+        int pos = Arrays.binarySearch(terms, term);
+        return pos >= 0 ? pos : -1;
+    }
+
+    // Index of the first term that is >= key, starting the search at from
+    int ceiling(String key, int from) {
+        int pos = Arrays.binarySearch(terms, from, terms.length, key);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    // Ordinals of every term accepted by the automaton. Terms are walked in sorted
+    // order so automaton states are shared across common prefixes, and whole
+    // subtrees are skipped as soon as a prefix can no longer match.
+    List<Integer> intersect(LevenshteinAutomaton automaton) {
+        List<Integer> matches = new ArrayList<>();
+        int[][] states = new int[16][];
+        states[0] = automaton.start();
+        String previous = "";
+        int computed = 0;
+
+        int ord = 0;
+        while (ord < terms.length) {
+            String term = terms[ord];
+            if (term.length() + 1 > states.length) {
+                states = Arrays.copyOf(states, term.length() + 1);
+            }
+
+            int depth = Math.min(commonPrefix(previous, term), computed);
+            int dead = -1;
+            while (depth < term.length()) {
+                states[depth + 1] = automaton.step(states[depth], term.charAt(depth));
+                depth++;
+                if (!automaton.canMatch(states[depth])) {
+                    dead = depth;
+                    break;
+                }
+            }
+            previous = term;
+            computed = depth;
+
+            if (dead >= 0) {
+                // no term sharing this prefix can match; jump past all of them
+                String prefix = term.substring(0, dead);
+                ord = ceiling(prefix + Character.MAX_VALUE, ord + 1);
+                continue;
+            }
+            if (automaton.isMatch(states[depth])) {
+                matches.add(ord);
+            }
+            ord++;
+        }
+        return matches;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // Growable docs + positions for one term
+    private static final class PostingsBuilder {
+        private int[] docs = new int[4];
+        private int[][] positions = new int[4][];
+        private int[][] offsets = new int[4][];
+        private int size;
+
+        void add(int doc, int[] docPositions, int[] docOffsets) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            docs[size] = doc;
+            positions[size] = docPositions;
+            offsets[size] = docOffsets;
+            size++;
+        }
+
+        void addAll(PostingsBuilder other) {
+            for (int k = 0; k < other.size; k++) {
+                add(other.docs[k], other.positions[k], other.offsets[k]);
+            }
+        }
+
+        int[] docs() {
+            return Arrays.copyOf(docs, size);
+        }
+
+        int[][] positions() {
+            return Arrays.copyOf(positions, size);
+        }
+
+        int[][] offsets() {
+            return Arrays.copyOf(offsets, size);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.notes.search;
+
+import java.util.Set;
+
+record TermQuery(Field field, String term) implements Query {
+
+    @Override
+    public RoaringBitmap docs(QueryContext context) {
+        int ord = context.dictionary().find(term);
+        if (ord < 0) {
+            return new RoaringBitmap();
+        }
+        if (field == Field.ANY) {
+            return context.dictionary().bitmap(ord);
+        }
+        int[] docs = context.dictionary().postings(ord);
+        RoaringBitmap out = new RoaringBitmap();
+        for (int i = 0; i < docs.length; i++) {
+            if (i % SearchShard.CANCEL_CHECK_INTERVAL == 0) {
+                context.checkCancelled();
+            }
+            for (int position : context.dictionary().positions(ord, i)) {
+                if (field.accepts(position)) {
+                    out.add(docs[i]);
+                    break;
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void collectTerms(Set<String> terms) {
+        terms.add(term);
+    }
+
+    @Override
+    public int cost(QueryContext context) {
+        int ord = context.dictionary().find(term);
+        return ord < 0 ? 0 : context.dictionary().postings(ord).length;
+    }
+}
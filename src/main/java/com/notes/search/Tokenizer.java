@@ -0,0 +1,71 @@
+package com.notes.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.notes.model.Rope;
+
+// Splits note text into lowercase word terms for the term dictionary
+final class Tokenizer {
+
+    // Receives each term with its word position and [start, end) character offsets
+    interface TokenSink {
+        void token(String term, int position, int start, int end);
+    }
+
+    private Tokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        tokenize(text, (term, position, start, end) -> terms.add(term));
+        return terms;
+    }
+
+    static void tokenize(String text, TokenSink sink) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        tokenize(List.of(text), sink);
+    }
+
+    // Reads the rope chunk by chunk, so a long body is never copied into one string
+    static void tokenize(Rope text, TokenSink sink) {
+        if (text == null) {
+            return;
+        }
+        tokenize(text.chunks(), sink);
+    }
+
+    // Offsets count from the start of the first chunk; a word may span chunks
+    private static void tokenize(List<String> chunks, TokenSink sink) {
+        int position = 0;
+        int offset = 0;
+        int start = -1;
+        // the current word's part in earlier chunks, when it started in one
+        StringBuilder head = new StringBuilder();
+        for (String chunk : chunks) {
+            int from = 0;
+            for (int i = 0; i < chunk.length(); i++) {
+                boolean wordChar = Character.isLetterOrDigit(chunk.charAt(i));
+                if (wordChar && start < 0) {
+                    start = offset + i;
+                    from = i;
+                } else if (!wordChar && start >= 0) {
+                    String word = head.isEmpty() ? chunk.substring(from, i) : head.append(chunk, from, i).toString();
+                    sink.token(word.toLowerCase(Locale.ROOT), position++, start, offset + i);
+                    head.setLength(0);
+                    start = -1;
+                }
+            }
+            if (start >= 0) {
+                head.append(chunk, from, chunk.length());
+            }
+            offset += chunk.length();
+        }
+        if (start >= 0) {
+            sink.token(head.toString().toLowerCase(Locale.ROOT), position, start, offset);
+        }
+    }
+}
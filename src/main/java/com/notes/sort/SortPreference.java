@@ -1,16 +1,59 @@
 package com.notes.sort;
 
+import java.text.CollationKey;
+import java.text.Collator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.Function;
 
+import com.notes.jfr.SortEvent;
 import com.notes.model.Note;
 
 // Strategy Design Pattern: SortOrder.java + SortPreference.java
 public class SortPreference {
-    private SortOrder sortOrder = SortOrder.LastModified;
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 50_000;
+    // packed date sort: low bits hold the list index, so lists must stay below this
+    private static final int INDEX_BITS = 22;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    private volatile SortOrder sortOrder = SortOrder.LastModified;
+    private Locale locale;
+    // TitleAZ compares collation keys cached on each note
+    private Collator collator;
+
+    // full sorts of at least this many notes use all cores
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private volatile SortStrategy lastStrategy;
+    private volatile long lastSortNanos;
 
     public SortPreference() {
+        this(Locale.getDefault());
+    }
+
+    public SortPreference(Locale locale) {
         this.sortOrder = SortOrder.LastModified;
+        setLocale(locale);
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    // Accents and letters order by the locale's rules; case is ignored as before
+    public void setLocale(Locale locale) {
+        if (locale == null) {
+            return;
+        }
+        Collator c = Collator.getInstance(locale);
+        c.setStrength(Collator.SECONDARY);
+        this.locale = locale;
+        this.collator = c;
     }
 
     public SortOrder getSortOrder() {
@@ -23,23 +66,187 @@ public class SortPreference {
         }
     }
 
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    // Integer.MAX_VALUE keeps every sort on the calling thread
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = Math.max(2, parallelThreshold);
+    }
+
+    public SortStrategy getLastStrategy() {
+        return lastStrategy;
+    }
+
+    public long getLastSortNanos() {
+        return lastSortNanos;
+    }
+
     public List<Note> apply(List<Note> notes) {
         if (notes == null) {
             return List.of();
         }
 
-        return switch (sortOrder) {
-            case LastModified -> notes.stream()
-                    .sorted(Comparator.comparing(Note::getUpdatedAt).reversed())
-                    .toList();
-            case CreatedDate -> notes.stream()
-                    .sorted(Comparator.comparing(Note::getCreatedAt).reversed())
-                    .toList();
-            case TitleAZ -> notes.stream()
-                    .sorted(Comparator.comparing(
-                            Note::getTitle,
-                            Comparator.nullsFirst(String::compareToIgnoreCase)))
-                    .toList();
+        long start = System.nanoTime();
+        SortEvent event = new SortEvent();
+        event.begin();
+        SortOrder order = sortOrder;
+        List<Note> result;
+        if (notes.size() >= parallelThreshold) {
+            result = order == SortOrder.TitleAZ
+                    ? parallelSortByTitle(notes)
+                    : parallelSortByDate(notes, order);
+            lastStrategy = SortStrategy.PARALLEL;
+        } else {
+            Note[] array = notes.toArray(new Note[0]);
+            Arrays.sort(array, comparator(order));
+            result = Collections.unmodifiableList(Arrays.asList(array));
+            lastStrategy = SortStrategy.SEQUENTIAL;
+        }
+        lastSortNanos = System.nanoTime() - start;
+        commit(event, order, notes.size(), -1);
+        return result;
+    }
+
+    // First limit notes in order, without sorting the rest: O(n log limit) with a bounded heap
+    public List<Note> apply(List<Note> notes, int limit) {
+        if (notes == null || limit <= 0) {
+            return List.of();
+        }
+        if (limit >= notes.size()) {
+            return apply(notes);
+        }
+
+        long start = System.nanoTime();
+        SortEvent event = new SortEvent();
+        event.begin();
+        SortOrder order = sortOrder;
+        Comparator<Note> comparator = comparator(order);
+        // max-heap of the best limit notes seen so far; the root is the worst of them
+        PriorityQueue<Note> heap = new PriorityQueue<>(limit + 1, comparator.reversed());
+        for (Note note : notes) {
+            if (heap.size() < limit) {
+                heap.add(note);
+            } else if (comparator.compare(note, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(note);
+            }
+        }
+        List<Note> result = new ArrayList<>(heap);
+        result.sort(comparator);
+        lastStrategy = SortStrategy.TOP_K;
+        lastSortNanos = System.nanoTime() - start;
+        commit(event, order, notes.size(), limit);
+        return List.copyOf(result);
+    }
+
+    private void commit(SortEvent event, SortOrder order, int notes, int limit) {
+        if (event.shouldCommit()) {
+            event.order = order.name();
+            event.strategy = lastStrategy.name();
+            event.notes = notes;
+            event.limit = limit;
+            event.commit();
+        }
+    }
+
+    private static List<Note> parallelSort(List<Note> notes, Comparator<Note> comparator) {
+        Note[] array = notes.toArray(new Note[0]);
+        Arrays.parallelSort(array, comparator);
+        return Collections.unmodifiableList(Arrays.asList(array));
+    }
+
+    // A note with its title's collation key, computed before the parallel sort starts
+    private record TitleKeyed(CollationKey key, Note note) {
+    }
+
+    private static final Comparator<TitleKeyed> BY_TITLE_KEY = Comparator.comparing(TitleKeyed::key)
+            .thenComparing(k -> k.note().getId(), Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    // TitleAZ on all cores. The keys are computed here on one thread: the Collator is
+    // synchronized and each note's key cache is not thread-safe, so workers computing them
+    // would queue on the collator and race on the cache. The workers only compare keys.
+    private List<Note> parallelSortByTitle(List<Note> notes) {
+        Collator c = collator;
+        TitleKeyed[] keyed = new TitleKeyed[notes.size()];
+        for (int i = 0; i < keyed.length; i++) {
+            Note note = notes.get(i);
+            keyed[i] = new TitleKeyed(note.getTitleKey(c), note);
+        }
+        Arrays.parallelSort(keyed, BY_TITLE_KEY);
+
+        Note[] out = new Note[keyed.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = keyed[i].note();
+        }
+        return Collections.unmodifiableList(Arrays.asList(out));
+    }
+
+    // Newest first by one timestamp: sorts packed (age, index) longs instead of objects,
+    // then orders the rare runs of equal timestamps by the full comparator
+    private List<Note> parallelSortByDate(List<Note> notes, SortOrder order) {
+        Function<Note, Instant> field = order == SortOrder.CreatedDate ? Note::getCreatedAt : Note::getUpdatedAt;
+        Comparator<Note> comparator = comparator(order);
+        int n = notes.size();
+        if (n > INDEX_MASK) {
+            return parallelSort(notes, comparator);
+        }
+
+        long[] millis = new long[n];
+        long newest = Long.MIN_VALUE;
+        long oldest = Long.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            Instant time = field.apply(notes.get(i));
+            if (time == null) {
+                return parallelSort(notes, comparator);
+            }
+            try {
+                millis[i] = time.toEpochMilli();
+            } catch (ArithmeticException e) {
+                return parallelSort(notes, comparator);
+            }
+            newest = Math.max(newest, millis[i]);
+            oldest = Math.min(oldest, millis[i]);
+        }
+        if (newest - oldest < 0 || newest - oldest >= 1L << (63 - INDEX_BITS)) {
+            return parallelSort(notes, comparator);
+        }
+
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = (newest - millis[i]) << INDEX_BITS | i;
+        }
+        Arrays.parallelSort(packed);
+
+        Note[] out = new Note[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = notes.get((int) (packed[i] & INDEX_MASK));
+        }
+        int runStart = 0;
+        for (int i = 1; i <= n; i++) {
+            if (i == n || packed[i] >>> INDEX_BITS != packed[runStart] >>> INDEX_BITS) {
+                if (i - runStart > 1) {
+                    Arrays.sort(out, runStart, i, comparator);
+                }
+                runStart = i;
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(out));
+    }
+
+    // Total order for a SortOrder; ties are broken by id so every view agrees
+    public Comparator<Note> comparator(SortOrder sortOrder) {
+        Comparator<Note> byKey = switch (sortOrder) {
+            case LastModified -> Comparator.comparing(Note::getUpdatedAt,
+                    Comparator.nullsLast(Comparator.<Instant>reverseOrder()));
+            case CreatedDate -> Comparator.comparing(Note::getCreatedAt,
+                    Comparator.nullsLast(Comparator.<Instant>reverseOrder()));
+            case TitleAZ -> {
+                Collator c = collator;
+                yield Comparator.comparing(note -> note.getTitleKey(c));
+            }
         };
+        return byKey.thenComparing(Note::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
     }
 }
\ No newline at end of file
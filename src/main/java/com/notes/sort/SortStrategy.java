@@ -0,0 +1,8 @@
+package com.notes.sort;
+
+// How SortPreference ordered the last list, for measuring and tuning the thresholds
+public enum SortStrategy {
+    SEQUENTIAL,
+    PARALLEL,
+    TOP_K,
+}
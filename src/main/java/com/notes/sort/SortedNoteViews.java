@@ -0,0 +1,96 @@
+package com.notes.sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.notes.model.Note;
+import com.notes.repo.NoteChangeListener;
+
+// Observer Pattern: one ordered set per SortOrder for active and for trashed notes, updated
+// per change in O(log n), so listing is a walk instead of a sort
+public class SortedNoteViews implements NoteChangeListener {
+
+    // key is a frozen copy of the sort fields: notes are edited in place, and a tree
+    // entry must keep the position it was inserted at until it is removed
+    private record Entry(Note note, Note key) {
+    }
+
+    private final SortPreference sortPreference;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<SortOrder, TreeSet<Entry>> active = new EnumMap<>(SortOrder.class);
+    private final Map<SortOrder, TreeSet<Entry>> trashed = new EnumMap<>(SortOrder.class);
+
+    public SortedNoteViews(SortPreference sortPreference) {
+        this.sortPreference = sortPreference;
+        rebuild();
+    }
+
+    // Re-sorts every view with the current comparators, e.g. after a locale change
+    public synchronized void rebuild() {
+        for (SortOrder order : SortOrder.values()) {
+            Comparator<Entry> byKey = Comparator.comparing(Entry::key, sortPreference.comparator(order));
+            TreeSet<Entry> activeView = new TreeSet<>(byKey);
+            TreeSet<Entry> trashedView = new TreeSet<>(byKey);
+            for (Entry entry : entries.values()) {
+                (entry.key().isDeleted() ? trashedView : activeView).add(entry);
+            }
+            active.put(order, activeView);
+            trashed.put(order, trashedView);
+        }
+    }
+
+    @Override
+    public synchronized void noteChanged(Note note) {
+        remove(note.getId());
+        Note key = new Note(note.getId(), note.getTitle(), null,
+                note.getCreatedAt(), note.getUpdatedAt(), note.getDeletedAt());
+        Entry entry = new Entry(note, key);
+        entries.put(note.getId(), entry);
+        for (TreeSet<Entry> view : views(key).values()) {
+            view.add(entry);
+        }
+    }
+
+    @Override
+    public synchronized void notePurged(String noteId) {
+        remove(noteId);
+    }
+
+    private void remove(String noteId) {
+        Entry old = entries.remove(noteId);
+        if (old != null) {
+            for (TreeSet<Entry> view : views(old.key()).values()) {
+                view.remove(old);
+            }
+        }
+    }
+
+    private Map<SortOrder, TreeSet<Entry>> views(Note key) {
+        return key.isDeleted() ? trashed : active;
+    }
+
+    public synchronized List<Note> list(SortOrder order, boolean deleted) {
+        return page(order, deleted, Integer.MAX_VALUE);
+    }
+
+    // First limit notes in order: O(limit) once the views are built
+    public synchronized List<Note> page(SortOrder order, boolean deleted, int limit) {
+        TreeSet<Entry> view = (deleted ? trashed : active).get(order);
+        List<Note> result = new ArrayList<>(Math.min(limit, view.size()));
+        Iterator<Entry> it = view.iterator();
+        while (it.hasNext() && result.size() < limit) {
+            result.add(it.next().note());
+        }
+        return result;
+    }
+
+    public synchronized int size(boolean deleted) {
+        return (deleted ? trashed : active).get(SortOrder.LastModified).size();
+    }
+}
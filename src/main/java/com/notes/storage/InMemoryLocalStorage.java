@@ -8,9 +8,20 @@ import java.nio.file.Path;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.notes.jfr.StorageFlushEvent;
+import com.notes.jfr.StorageLoadEvent;
+import com.notes.metrics.Counter;
+import com.notes.metrics.LatencyHistogram;
+import com.notes.metrics.MetricsRegistry;
+
 // Adapter Pattern: LocalStorage.java + InMemoryStorage.java
 public class InMemoryLocalStorage implements LocalStorage {
 
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    private static final LatencyHistogram LOAD = METRICS.histogram("storage.load");
+    private static final LatencyHistogram FLUSH = METRICS.histogram("storage.flush");
+    private static final Counter BYTES_WRITTEN = METRICS.counter("storage.bytesWritten");
+
     private final Map<String, Object> storage = new ConcurrentHashMap<>();
     private final Path filePath;
 
@@ -32,6 +43,9 @@ public class InMemoryLocalStorage implements LocalStorage {
         if (!Files.exists(filePath)) {
             return;
         }
+        long start = System.nanoTime();
+        StorageLoadEvent event = new StorageLoadEvent();
+        event.begin();
         try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(filePath))) {
             Object raw = ois.readObject();
             if (raw instanceof Map<?, ?> map) {
@@ -41,9 +55,19 @@ public class InMemoryLocalStorage implements LocalStorage {
         } catch (IOException | ClassNotFoundException e) {
             storage.clear();
         }
+        LOAD.recordSince(start);
+        if (event.shouldCommit()) {
+            event.path = filePath.toString();
+            event.bytes = filePath.toFile().length();
+            event.entries = storage.size();
+            event.commit();
+        }
     }
 
     private synchronized void saveToDisk() {
+        long start = System.nanoTime();
+        StorageFlushEvent event = new StorageFlushEvent();
+        event.begin();
         try {
             if (filePath.getParent() != null) {
                 Files.createDirectories(filePath.getParent());
@@ -51,9 +75,17 @@ public class InMemoryLocalStorage implements LocalStorage {
             try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(filePath))) {
                 oos.writeObject(storage);
             }
+            long bytes = Files.size(filePath);
+            BYTES_WRITTEN.add(bytes);
+            event.bytes = bytes;
         } catch (IOException e) {
             // ignore persistence errors for this simple app
         }
+        FLUSH.recordSince(start);
+        if (event.shouldCommit()) {
+            event.path = filePath.toString();
+            event.commit();
+        }
     }
 
     @Override
@@ -67,6 +99,12 @@ public class InMemoryLocalStorage implements LocalStorage {
         saveToDisk(); // persist every change
     }
 
+    @Override
+    public synchronized void writeAll(Map<String, Object> values) {
+        storage.putAll(values);
+        saveToDisk(); // one file write for all of them
+    }
+
     @Override
     public synchronized void delete(String key) {
         storage.remove(key);
@@ -1,7 +1,14 @@
 package com.notes.storage;
 
+import java.util.Map;
+
 public interface LocalStorage{
     Object read(String key);
     void write(String key, Object value);
     void delete(String key);
+
+    // Several keys in one write, so they are persisted together
+    default void writeAll(Map<String, Object> values) {
+        values.forEach(this::write);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.notes.ui;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Turns target into a copy of source with few list operations, so an ObservableList fires
+// change events (and the ListView re-lays out) only for rows that actually moved, appeared
+// or disappeared. Items are matched by key; keys must be unique within each list.
+final class ListDiff {
+
+    private ListDiff() {
+    }
+
+    // Returns the number of list operations applied to target
+    static <T, K> int apply(List<T> target, List<T> source, Function<T, K> key) {
+        int ops = 0;
+
+        // unchanged head and tail cost comparisons only
+        int start = 0;
+        int oldEnd = target.size();
+        int newEnd = source.size();
+        while (start < oldEnd && start < newEnd && sameKey(target.get(start), source.get(start), key)) {
+            ops += refresh(target, start, source.get(start));
+            start++;
+        }
+        while (oldEnd > start && newEnd > start && sameKey(target.get(oldEnd - 1), source.get(newEnd - 1), key)) {
+            ops += refresh(target, oldEnd - 1, source.get(newEnd - 1));
+            oldEnd--;
+            newEnd--;
+        }
+        if (start == oldEnd && start == newEnd) {
+            return ops;
+        }
+
+        // position of each remaining old item
+        Map<K, Integer> oldIndex = new HashMap<>();
+        for (int i = start; i < oldEnd; i++) {
+            oldIndex.put(key.apply(target.get(i)), i);
+        }
+        int window = newEnd - start;
+        int[] fromOld = new int[window];
+        for (int p = 0; p < window; p++) {
+            fromOld[p] = oldIndex.getOrDefault(key.apply(source.get(start + p)), -1);
+        }
+
+        // the longest run of items already in relative order stays put; the rest move
+        boolean[] keep = longestIncreasing(fromOld);
+        boolean[] oldKept = new boolean[oldEnd - start];
+        for (int p = 0; p < window; p++) {
+            if (keep[p]) {
+                oldKept[fromOld[p] - start] = true;
+            }
+        }
+
+        // remove everything not kept, back to front, in contiguous ranges
+        int i = oldEnd;
+        while (i > start) {
+            if (oldKept[i - 1 - start]) {
+                i--;
+                continue;
+            }
+            int runEnd = i;
+            while (i > start && !oldKept[i - 1 - start]) {
+                i--;
+            }
+            target.subList(i, runEnd).clear();
+            ops++;
+        }
+
+        // kept items are now in order at the front of the window; insert the others between them
+        int p = 0;
+        while (p < window) {
+            int at = start + p;
+            if (keep[p]) {
+                ops += refresh(target, at, source.get(at));
+                p++;
+                continue;
+            }
+            int runStart = p;
+            while (p < window && !keep[p]) {
+                p++;
+            }
+            target.addAll(at, new ArrayList<>(source.subList(start + runStart, start + p)));
+            ops++;
+        }
+        return ops;
+    }
+
+    private static <T, K> boolean sameKey(T a, T b, Function<T, K> key) {
+        return key.apply(a).equals(key.apply(b));
+    }
+
+    // a new instance of the same item replaces the old one so its cell shows the new state
+    private static <T> int refresh(List<T> target, int index, T item) {
+        if (target.get(index) != item) {
+            target.set(index, item);
+            return 1;
+        }
+        return 0;
+    }
+
+    // Marks a longest strictly increasing subsequence of the non-negative values (patience sort)
+    static boolean[] longestIncreasing(int[] values) {
+        int n = values.length;
+        int[] tails = new int[n];      // index into values of the smallest tail per length
+        int[] previous = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            if (values[i] < 0) {
+                continue;
+            }
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[tails[mid]] < values[i]) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            previous[i] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == length) {
+                length++;
+            }
+        }
+        boolean[] keep = new boolean[n];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            keep[i] = true;
+        }
+        return keep;
+    }
+}
@@ -1,11 +1,32 @@
 package com.notes.ui;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import com.notes.app.AppController;
+import com.notes.app.AsyncAppController;
+import com.notes.app.AutoSaveScheduler;
+import com.notes.app.EditJournal;
+import com.notes.app.LiveSearch;
+import com.notes.app.StartupMetrics;
+import com.notes.jfr.ListRefreshEvent;
+import com.notes.metrics.MetricsRegistry;
+import com.notes.model.BodyEdits;
 import com.notes.model.Note;
+import com.notes.model.Rope;
+import com.notes.model.TextEdit;
 import com.notes.repo.NoteRepository;
 import com.notes.repo.Trash;
+import com.notes.search.MatchSpan;
+import com.notes.search.SearchHit;
 import com.notes.search.SearchIndex;
 import com.notes.sort.SortOrder;
 import com.notes.sort.SortPreference;
@@ -14,30 +35,59 @@ import com.notes.storage.LocalStorage;
 import com.notes.util.Clock;
 import com.notes.util.SystemClock;
 
+import javax.management.JMException;
+
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
+import javafx.scene.control.TextFormatter;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 public class NotesApp extends Application {
 
-    private AppController controller;
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(250);
+    private static final Path INDEX_FILE = Path.of("notes.idx");
+    private static final Path JOURNAL_FILE = Path.of("notes.journal");
+    // newest notes shown before the rest of the list is sorted and filled in
+    private static final int FIRST_PAGE = 50;
 
+    private AppController controller;
+    private StartupMetrics startup;
+    // storage and sorting run here; results come back on the FX thread
+    private AsyncAppController async;
+    private AutoSaveScheduler autoSave;
+    // keystrokes since the last autosave, for crash recovery; null if it could not be opened
+    private volatile EditJournal journal;
+    private LiveSearch liveSearch;
+    private PauseTransition searchDebounce;
+
+    private BorderPane root;
     private ListView<Note> notesListView;
+    // the one list the ListView shows; refreshes patch it instead of replacing it
+    private final ObservableList<Note> noteItems = FXCollections.observableArrayList();
     private TextField titleField;
     private TextArea bodyArea;
     private TextField searchField;
     private ComboBox<SortOrder> sortBox;
+    private TextField tagsField;
+    private ComboBox<String> tagBox;
 
     private Button newButton;
     private Button saveButton;
@@ -48,31 +98,53 @@ public class NotesApp extends Application {
 
     private Label modeLabel;
     private Label sortLabel;
+    private Label saveStatusLabel;
 
     private Note currentNote;
     private boolean showingTrash = false;
 
     private boolean suppressAutoSaveOnSelection = false;
+    // set while the editor is filled programmatically, so that is not taken for typing
+    private boolean loadingEditor = false;
+    // the body as the editor shows it, updated edit by edit so a draft never copies the text area
+    private Rope bodyText = Rope.EMPTY;
+    // body changes typed since the last draft, so a save applies them instead of diffing the body,
+    // and the revision of the body they start from (BodyEdits.FOLLOWS: the previous draft's;
+    // null: the editor shows a body that is not stored, so they apply to nothing stored)
+    private final List<TextEdit> bodyEdits = new ArrayList<>();
+    private Long bodyEditsBase = BodyEdits.FOLLOWS;
+
+    // query whose matches the list is showing; null when it shows a plain list
+    private String highlightQuery;
+    // snippets for the shown results by note id, computed on a worker; highlightRound is
+    // bumped whenever the results change
+    private final Map<String, SearchHit> highlights = new HashMap<>();
+    private final Set<String> highlightsRequested = new HashSet<>();
+    private final List<Note> highlightQueue = new ArrayList<>();
+    private long highlightRound;
+
+    // facet counts behind tagBox; "" is the "All tags" entry
+    private Map<String, Integer> tagCounts = Map.of();
+    private long tagCountsRequest;
+    private boolean updatingTagBox = false;
 
     @Override
     public void start(Stage stage) {
-        // Backend
-        LocalStorage storage = new InMemoryLocalStorage();
-        Clock clock = new SystemClock();
-        Trash trash = new Trash(30, clock);
-        NoteRepository repo = new NoteRepository(storage, clock);
-        SearchIndex index = SearchIndex.getInstance();
-        SortPreference sortPref = new SortPreference();
-
-        controller = new AppController(repo, trash, index, sortPref);
+        startup = new StartupMetrics();
+        publishMetrics();
 
         // UI controls
         notesListView = new ListView<>();
         notesListView.setPrefWidth(220);
+        notesListView.setCellFactory(list -> new NoteCell());
+        notesListView.setItems(noteItems);
 
         titleField = new TextField();
         titleField.setPromptText("Title");
 
+        tagsField = new TextField();
+        tagsField.setPromptText("Tags, comma separated");
+
         bodyArea = new TextArea();
         bodyArea.setPromptText("Write your note here...");
 
@@ -84,6 +156,12 @@ public class NotesApp extends Application {
         sortBox.getItems().addAll(SortOrder.values());
         sortBox.setValue(SortOrder.LastModified);
 
+        tagBox = new ComboBox<>();
+        tagBox.setCellFactory(list -> new TagCell());
+        tagBox.setButtonCell(new TagCell());
+        tagBox.getItems().add("");
+        tagBox.setValue("");
+
         newButton = new Button("New");
         saveButton = new Button("Save");
         deleteButton = new Button("Delete");
@@ -92,6 +170,7 @@ public class NotesApp extends Application {
 
         modeLabel = new Label("Notes");
         sortLabel = new Label("Sort:");
+        saveStatusLabel = new Label();
 
         HBox topBar = new HBox(
                 8,
@@ -100,23 +179,23 @@ public class NotesApp extends Application {
                 searchButton,
                 sortLabel,
                 sortBox,
+                tagBox,
                 trashButton
         );
         topBar.setPadding(new Insets(8));
 
-        VBox editorBox = new VBox(8, titleField, bodyArea);
+        VBox editorBox = new VBox(8, titleField, tagsField, bodyArea);
         editorBox.setPadding(new Insets(8));
 
-        HBox bottomBar = new HBox(8, newButton, saveButton, deleteButton, restoreButton);
+        HBox bottomBar = new HBox(8, newButton, saveButton, deleteButton, restoreButton, saveStatusLabel);
         bottomBar.setPadding(new Insets(8));
 
-        BorderPane root = new BorderPane();
+        root = new BorderPane();
         root.setTop(topBar);
         root.setLeft(notesListView);
         root.setCenter(editorBox);
         root.setBottom(bottomBar);
 
-        refreshNotesList(controller.getListOfNotes());
         updateModeUI();
 
         notesListView.getSelectionModel().selectedItemProperty().addListener((obs, old, selected) -> {
@@ -126,17 +205,46 @@ public class NotesApp extends Application {
             }
 
             if (selected != null) {
-                Note reloaded = controller.openNote(selected.getId());
-                currentNote = (reloaded != null) ? reloaded : selected;
-                titleField.setText(currentNote.getTitle());
-                bodyArea.setText(currentNote.getContent());
+                // flush() only queued the save, so the note itself may not have the typed text yet
+                currentNote = selected;
+                AutoSaveScheduler.Draft draft = autoSave.draftFor(selected.getId());
+                if (draft != null) {
+                    showInEditor(draft);
+                } else {
+                    showInEditor(currentNote);
+                }
             } else {
                 currentNote = null;
-                titleField.clear();
-                bodyArea.clear();
+                clearEditor();
             }
         });
 
+        // Every keystroke goes to the journal first, so a crash before the next save loses nothing
+        titleField.setTextFormatter(new TextFormatter<>(change -> journal(change, EditJournal.Field.TITLE)));
+        tagsField.setTextFormatter(new TextFormatter<>(change -> journal(change, EditJournal.Field.TAGS)));
+        // The body is followed through its changes rather than read back from the area, which
+        // would copy the whole text on every keystroke
+        bodyArea.setTextFormatter(new TextFormatter<>(change -> {
+            if (!change.isContentChange()) {
+                return change;
+            }
+            String text = keptByTextArea(change.getText());
+            if (!text.equals(change.getText())) {
+                change.setText(text);
+            }
+            journal(change, EditJournal.Field.BODY);
+            bodyText = bodyText.replace(change.getRangeStart(), change.getRangeEnd(), text);
+            if (!loadingEditor && !showingTrash && currentNote != null) {
+                bodyEdits.add(new TextEdit(change.getRangeStart(), change.getRangeEnd(), text));
+                markDirty();
+            }
+            return change;
+        }));
+
+        // Typing only marks the note dirty; the scheduler saves it in the background
+        titleField.textProperty().addListener((obs, old, text) -> markDirty());
+        tagsField.textProperty().addListener((obs, old, text) -> markDirty());
+
         newButton.setOnAction(e -> {
             if (showingTrash) {
                 return;
@@ -144,15 +252,21 @@ public class NotesApp extends Application {
 
             autoSaveIfNeeded();
 
-            currentNote = controller.newNote();
-
-            suppressAutoSaveOnSelection = true;
-            refreshNotesList(controller.getListOfNotes());
-            notesListView.getSelectionModel().select(currentNote);
-            suppressAutoSaveOnSelection = false;
-
-            titleField.setText(currentNote.getTitle());
-            bodyArea.setText(currentNote.getContent());
+            async.newNote()
+                    .thenCompose(note -> async.getListOfNotes().thenApply(notes -> {
+                        if (showingTrash) {
+                            return null;
+                        }
+                        currentNote = note;
+
+                        suppressAutoSaveOnSelection = true;
+                        refreshNotesList(notes);
+                        notesListView.getSelectionModel().select(currentNote);
+                        suppressAutoSaveOnSelection = false;
+
+                        showInEditor(currentNote);
+                        return null;
+                    }));
         });
 
         saveButton.setOnAction(e -> {
@@ -160,12 +274,8 @@ public class NotesApp extends Application {
                 return;
             }
             if (currentNote != null) {
-                controller.editNote(
-                        currentNote.getId(),
-                        titleField.getText(),
-                        bodyArea.getText()
-                );
-                refreshNotesList(controller.getListOfNotes());
+                autoSaveIfNeeded();
+                showWhenReady(async.getListOfNotes(), false);
             }
         });
 
@@ -180,16 +290,15 @@ public class NotesApp extends Application {
             }
 
             if (showingTrash) {
-                controller.emptyTrash(List.of(selected.getId()));
-                refreshNotesList(controller.getDeletedNotes());
+                async.emptyTrash(List.of(selected.getId()));
+                showWhenReady(async.getDeletedNotes(), true);
             } else {
-                controller.deleteNote(selected.getId());
-                refreshNotesList(controller.getListOfNotes());
+                async.deleteNote(selected.getId());
+                showWhenReady(async.getListOfNotes(), false);
             }
 
             currentNote = null;
-            titleField.clear();
-            bodyArea.clear();
+            clearEditor();
         });
 
         restoreButton.setOnAction(e -> {
@@ -202,96 +311,498 @@ public class NotesApp extends Application {
                 return;
             }
 
-            controller.restoreNote(selected.getId());
-            refreshNotesList(controller.getDeletedNotes());
+            async.restoreNote(selected.getId());
+            showWhenReady(async.getDeletedNotes(), true);
 
             currentNote = null;
-            titleField.clear();
-            bodyArea.clear();
+            clearEditor();
         });
 
         sortBox.setOnAction(e -> {
             SortOrder order = sortBox.getValue();
-            controller.setSortOrder(order);
-            if (!showingTrash) {
-                refreshNotesList(controller.getListOfNotes());
-            } else {
-                refreshNotesList(controller.getDeletedNotes());
-            }
+            showWhenReady(async.setSortOrder(order, showingTrash), showingTrash);
         });
 
-        searchButton.setOnAction(e -> {
-            if (showingTrash) {
+        tagBox.setOnAction(e -> {
+            if (updatingTagBox || showingTrash) {
                 return;
             }
-
             autoSaveIfNeeded();
-
+            String tag = tagBox.getValue();
+            controller.setTagFilter(tag == null || tag.isEmpty() ? List.of() : List.of(tag));
             String query = searchField.getText();
-            List<Note> results = controller.search(query);
-            refreshNotesList(results);
-
-            currentNote = null;
-            titleField.clear();
-            bodyArea.clear();
+            if (query == null || query.isBlank()) {
+                showWhenReady(async.getListOfNotes(), false);
+            } else {
+                runSearch();
+            }
         });
 
-        searchField.setOnAction(e -> {
-            if (showingTrash) {
-                return;
+        // Search as you type: wait for a pause in typing, then search in the background
+        searchDebounce = new PauseTransition(SEARCH_DEBOUNCE);
+        searchDebounce.setOnFinished(e -> runSearch());
+        searchField.textProperty().addListener((obs, old, text) -> {
+            if (!showingTrash) {
+                searchDebounce.playFromStart();
             }
+        });
 
-            autoSaveIfNeeded();
-
-            String query = searchField.getText();
-            List<Note> results = controller.search(query);
-            refreshNotesList(results);
+        searchButton.setOnAction(e -> {
+            searchDebounce.stop();
+            runSearch();
+        });
 
-            currentNote = null;
-            titleField.clear();
-            bodyArea.clear();
+        searchField.setOnAction(e -> {
+            searchDebounce.stop();
+            runSearch();
         });
 
         trashButton.setOnAction(e -> {
             autoSaveIfNeeded();
 
+            searchDebounce.stop();
+            liveSearch.cancel();
+
             showingTrash = !showingTrash;
 
-            if (showingTrash) {
-                refreshNotesList(controller.getDeletedNotes());
-            } else {
-                refreshNotesList(controller.getListOfNotes());
-            }
+            showWhenReady(showingTrash ? async.getDeletedNotes() : async.getListOfNotes(), showingTrash);
 
             currentNote = null;
-            titleField.clear();
-            bodyArea.clear();
+            clearEditor();
 
             updateModeUI();
         });
 
+        // The window appears at once in a loading state; notes.dat is read in the background
+        setLoading(true);
         stage.setTitle("Notes App");
-        stage.setScene(new Scene(root, 900, 600));
+        Scene scene = new Scene(root, 900, 600);
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                startup.mark(StartupMetrics.Phase.FIRST_PAINT);
+                scene.removePostLayoutPulseListener(this);
+            }
+        });
+        stage.setScene(scene);
         stage.show();
+
+        loadInBackground();
+    }
+
+    // Metrics show up in JConsole / VisualVM under com.notes:type=Metrics
+    private void publishMetrics() {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        for (StartupMetrics.Phase phase : StartupMetrics.Phase.values()) {
+            metrics.gauge("startup." + phase.name().toLowerCase(Locale.ROOT) + "_ms", () -> startup.millis(phase));
+        }
+        try {
+            metrics.registerMBean("com.notes:type=Metrics");
+        } catch (JMException e) {
+            // metrics are still recorded, just not visible over JMX
+        }
+    }
+
+    // Storage, journal replay and search index load off the FX thread. The newest notes are
+    // shown (and editable) as soon as storage is read; search waits for the index.
+    private void loadInBackground() {
+        Thread loader = new Thread(() -> {
+            AppController loaded = createController();
+            startup.mark(StartupMetrics.Phase.STORAGE_LOADED);
+            List<Note> firstPage = loaded.getListOfNotes(FIRST_PAGE);
+            Platform.runLater(() -> showLoaded(loaded, firstPage));
+
+            loaded.loadSearchIndex(INDEX_FILE);
+            Platform.runLater(this::enableSearch);
+        }, "startup-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private AppController createController() {
+        LocalStorage storage = new InMemoryLocalStorage();
+        Clock clock = new SystemClock();
+        Trash trash = new Trash(30, clock);
+        NoteRepository repo = new NoteRepository(storage, clock);
+        SearchIndex index = SearchIndex.getInstance();
+        SortPreference sortPref = new SortPreference();
+
+        AppController loaded = new AppController(repo, trash, index, sortPref);
+        recoverUnsavedEdits(loaded);
+        return loaded;
+    }
+
+    private void showLoaded(AppController loaded, List<Note> firstPage) {
+        controller = loaded;
+        async = new AsyncAppController(controller, Platform::runLater);
+        // searches wait for queued saves, so they find what was just typed
+        liveSearch = new LiveSearch(controller, Platform::runLater, async::whenWritten);
+        autoSave = new AutoSaveScheduler(async);
+        autoSave.setOnSaved((draft, nanos) -> {
+            saveStatusLabel.setText(String.format("Saved (%.1f ms)", nanos / 1_000_000.0));
+            if (journal != null) {
+                journal.saved(draft.noteId(), draft.version(), draft.body());
+            }
+        });
+
+        refreshNotesList(firstPage);
+        setLoading(false);
+        startup.mark(StartupMetrics.Phase.FIRST_NOTES);
+
+        // the rest of the list; ListDiff appends it below the first page
+        showWhenReady(async.getListOfNotes(), false);
+    }
+
+    private void enableSearch() {
+        searchField.setDisable(false);
+        searchButton.setDisable(false);
+        startup.mark(StartupMetrics.Phase.SEARCH_READY);
+        saveStatusLabel.setText("Started: " + startup.summary());
+    }
+
+    // While loading nothing can be used; search stays off until enableSearch()
+    private void setLoading(boolean loading) {
+        notesListView.setPlaceholder(new Label(loading ? "Loading notes..." : "No notes"));
+        root.getCenter().setDisable(loading);
+        root.getBottom().setDisable(loading);
+        root.getLeft().setDisable(loading);
+        sortBox.setDisable(loading);
+        tagBox.setDisable(loading);
+        trashButton.setDisable(loading);
+        if (loading) {
+            searchField.setDisable(true);
+            searchButton.setDisable(true);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (liveSearch != null) {
+            liveSearch.close();
+        }
+        if (autoSave != null) {
+            autoSave.close();
+        }
+        if (async != null) {
+            // wait for queued edits before the index is written
+            async.close();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        if (controller != null) {
+            controller.saveSearchIndex(INDEX_FILE);
+        }
+        MetricsRegistry.getDefault().unregisterMBean();
+    }
+
+    private void runSearch() {
+        if (showingTrash) {
+            return;
+        }
+
+        autoSaveIfNeeded();
+
+        liveSearch.submit(searchField.getText(), results -> {
+            if (showingTrash) {
+                return;
+            }
+            String query = searchField.getText();
+            refreshNotesList(results, (query == null || query.isBlank()) ? null : query);
+
+            currentNote = null;
+            clearEditor();
+        });
+    }
+
+    // Shows a listing once it arrives, unless the user switched between notes and trash meanwhile
+    private void showWhenReady(CompletableFuture<List<Note>> notes, boolean trash) {
+        notes.thenAccept(list -> {
+            if (showingTrash == trash) {
+                refreshNotesList(list);
+            }
+        });
     }
 
     private void refreshNotesList(List<Note> notes) {
-        notesListView.setItems(FXCollections.observableArrayList(notes));
+        refreshNotesList(notes, null);
+    }
+
+    // Applies only the inserts, removals and moves between the shown list and notes, so the
+    // selection and scroll position survive and the ListView re-lays out just the changed rows.
+    // Notes are edited in place, so visible cells are redrawn to pick up new titles and snippets.
+    private void refreshNotesList(List<Note> notes, String highlight) {
+        ListRefreshEvent event = new ListRefreshEvent();
+        event.begin();
+        highlightQuery = highlight;
+        highlights.clear();
+        highlightsRequested.clear();
+        highlightQueue.clear();
+        highlightRound++;
+        if (highlight != null) {
+            // the first screen in one batch; rows scrolled to later ask for their own
+            requestHighlights(notes.subList(0, Math.min(FIRST_PAGE, notes.size())));
+        }
+        int operations = ListDiff.apply(noteItems, notes, Note::getId);
+        notesListView.refresh();
+        refreshTagFacets();
+        if (event.shouldCommit()) {
+            event.rows = noteItems.size();
+            event.operations = operations;
+            event.commit();
+        }
     }
 
+    // Snippets are computed on a worker and the rows redrawn when they arrive; a newer
+    // listing makes answers for the old one stale
+    private void requestHighlights(List<Note> notes) {
+        long round = highlightRound;
+        for (Note note : notes) {
+            highlightsRequested.add(note.getId());
+        }
+        async.highlight(highlightQuery, List.copyOf(notes)).thenAccept(hits -> {
+            if (round == highlightRound) {
+                highlights.putAll(hits);
+                notesListView.refresh();
+            }
+        });
+    }
+
+    // Rows laid out in one pulse are batched into a single request
+    private void queueHighlight(Note note) {
+        if (highlightsRequested.contains(note.getId()) || highlightQueue.contains(note)) {
+            return;
+        }
+        if (highlightQueue.isEmpty()) {
+            Platform.runLater(() -> {
+                if (!highlightQueue.isEmpty()) {
+                    requestHighlights(highlightQueue);
+                    highlightQueue.clear();
+                }
+            });
+        }
+        highlightQueue.add(note);
+    }
+
+    // Counts come from the repository's tag index on a worker; only the newest request is shown
+    private void refreshTagFacets() {
+        long request = ++tagCountsRequest;
+        async.getTagCounts().thenAccept(counts -> {
+            if (request == tagCountsRequest) {
+                showTagFacets(counts);
+            }
+        });
+    }
+
+    private void showTagFacets(Map<String, Integer> counts) {
+        if (counts.equals(tagCounts)) {
+            return;
+        }
+        tagCounts = counts;
+        String selected = tagBox.getValue();
+        List<String> items = new ArrayList<>();
+        items.add("");
+        items.addAll(counts.keySet());
+        updatingTagBox = true;
+        tagBox.getItems().setAll(items);
+        tagBox.setValue(selected == null || !items.contains(selected) ? "" : selected);
+        updatingTagBox = false;
+        // the filtered tag may have just disappeared
+        if (!tagBox.getValue().equals(selected)) {
+            controller.setTagFilter(List.of());
+        }
+    }
+
+    private final class TagCell extends ListCell<String> {
+        @Override
+        protected void updateItem(String tag, boolean empty) {
+            super.updateItem(tag, empty);
+            if (empty || tag == null || tag.isEmpty()) {
+                setText(empty ? null : "All tags");
+            } else {
+                setText("#" + tag + " (" + tagCounts.getOrDefault(tag, 0) + ")");
+            }
+        }
+    }
+
+    // List row: the title, plus a snippet with the matches in bold while showing search
+    // results. Only visible rows are rendered, so highlighting cost follows the viewport.
+    private final class NoteCell extends ListCell<Note> {
+        private final Label title = new Label();
+        private final TextFlow snippet = new TextFlow();
+        private final VBox box = new VBox(2, title, snippet);
+
+        NoteCell() {
+            snippet.maxWidthProperty().bind(notesListView.widthProperty().subtract(30));
+        }
+
+        @Override
+        protected void updateItem(Note note, boolean empty) {
+            super.updateItem(note, empty);
+            if (empty || note == null) {
+                setText(null);
+                setGraphic(null);
+                return;
+            }
+            if (highlightQuery == null) {
+                setText(note.toString());
+                setGraphic(null);
+                return;
+            }
+
+            SearchHit hit = highlights.get(note.getId());
+            if (hit == null) {
+                // shown plain until the worker has its snippet
+                queueHighlight(note);
+                setText(note.toString());
+                setGraphic(null);
+                return;
+            }
+            title.setText(note.toString());
+            snippet.getChildren().setAll(snippetTexts(hit));
+            setText(null);
+            setGraphic(box);
+        }
+
+        private List<Text> snippetTexts(SearchHit hit) {
+            String text = hit.getSnippet();
+            List<Text> parts = new ArrayList<>();
+            int cursor = 0;
+            for (MatchSpan span : hit.getSnippetMatches()) {
+                if (span.start() < cursor) {
+                    continue; // overlaps the previous match
+                }
+                parts.add(plain(text.substring(cursor, span.start())));
+                Text match = new Text(text.substring(span.start(), span.end()));
+                match.setStyle("-fx-font-weight: bold;");
+                parts.add(match);
+                cursor = span.end();
+            }
+            parts.add(plain(text.substring(cursor)));
+            return parts;
+        }
+
+        private Text plain(String s) {
+            Text t = new Text(s);
+            t.setStyle("-fx-fill: #555555;");
+            return t;
+        }
+    }
+
+    // Saves pending edits now, e.g. before switching notes; async reads and live searches
+    // submitted after this see them
     private void autoSaveIfNeeded() {
         if (showingTrash) {
             return;
         }
-        if (currentNote == null) {
-            return;
+        autoSave.flush();
+    }
+
+    // Saves drafts a crash left in the journal, then starts a fresh one
+    private void recoverUnsavedEdits(AppController loaded) {
+        Map<String, AutoSaveScheduler.Draft> drafts = EditJournal.recover(JOURNAL_FILE, id -> {
+            Note note = loaded.openNote(id);
+            return note == null ? null : note.getContent();
+        });
+        for (AutoSaveScheduler.Draft draft : drafts.values()) {
+            loaded.editNote(draft.noteId(), draft.title(), draft.body(), draft.tags());
+        }
+        try {
+            journal = new EditJournal(JOURNAL_FILE);
+        } catch (IOException e) {
+            journal = null;
+        }
+    }
+
+    // A text area drops control characters other than newline and tab (such as the \r of a
+    // pasted \r\n) after the filters have run; dropping them first keeps the body edits exact
+    private static String keptByTextArea(String text) {
+        if (text == null) {
+            return "";
         }
+        StringBuilder kept = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean dropped = c == 0x7F || (c < 0x20 && c != '\n' && c != '\t');
+            if (dropped && kept == null) {
+                kept = new StringBuilder(text.length()).append(text, 0, i);
+            } else if (!dropped && kept != null) {
+                kept.append(c);
+            }
+        }
+        return kept == null ? text : kept.toString();
+    }
 
-        controller.editNote(
+    // TextFormatter filter: logs the change (before it is applied) and lets it through.
+    // The journal only queues the record; encoding and disk writes happen on its own thread.
+    private TextFormatter.Change journal(TextFormatter.Change change, EditJournal.Field field) {
+        if (journal != null && !loadingEditor && !showingTrash && currentNote != null && change.isContentChange()) {
+            String id = currentNote.getId();
+            if (!journal.isOpen(id)) {
+                journal.begin(id, titleField.getText(), bodyText, tagsField.getText());
+            }
+            journal.edit(id, field, change.getRangeStart(), change.getRangeEnd(), change.getText());
+        }
+        return change;
+    }
+
+    private void markDirty() {
+        if (loadingEditor || showingTrash || currentNote == null) {
+            return;
+        }
+        autoSave.markDirty(new AutoSaveScheduler.Draft(
                 currentNote.getId(),
                 titleField.getText(),
-                bodyArea.getText()
-        );
+                bodyText,
+                Note.parseTags(tagsField.getText()),
+                journal == null ? 0 : journal.lastSequence(currentNote.getId()),
+                bodyEditsBase == null ? null : new BodyEdits(bodyEditsBase, bodyEdits)
+        ));
+        bodyEdits.clear();
+        bodyEditsBase = BodyEdits.FOLLOWS;
+    }
+
+    private void showInEditor(Note note) {
+        loadingEditor = true;
+        bodyEdits.clear();
+        titleField.setText(note.getTitle());
+        tagsField.setText(String.join(", ", note.getTags()));
+        bodyArea.setText(note.getContent());
+        showingBody(note.getText(), note.getRevision());
+        loadingEditor = false;
+    }
+
+    // Edits typed from here on follow the draft, which is queued or being saved
+    private void showInEditor(AutoSaveScheduler.Draft draft) {
+        loadingEditor = true;
+        bodyEdits.clear();
+        titleField.setText(draft.title());
+        tagsField.setText(String.join(", ", draft.tags()));
+        bodyArea.setText(draft.body().toString());
+        showingBody(draft.body(), BodyEdits.FOLLOWS);
+        loadingEditor = false;
+    }
+
+    // The area now shows body, which edits typed next start from at base. Only dropped
+    // characters can make it differ, and then those edits fit no stored body.
+    private void showingBody(CharSequence body, long base) {
+        Rope loaded = Rope.of(body);
+        if (loaded.length() == bodyText.length()) {
+            bodyText = loaded;
+            bodyEditsBase = base;
+        } else {
+            bodyEditsBase = null;
+        }
+    }
+
+    private void clearEditor() {
+        loadingEditor = true;
+        bodyEdits.clear();
+        bodyEditsBase = BodyEdits.FOLLOWS;
+        titleField.clear();
+        tagsField.clear();
+        bodyArea.clear();
+        loadingEditor = false;
     }
 
     // Toggle visibility / text / editability based on mode
@@ -319,6 +830,9 @@ public class NotesApp extends Application {
             sortBox.setVisible(false);
             sortBox.setManaged(false);
 
+            tagBox.setVisible(false);
+            tagBox.setManaged(false);
+
             // show restore
             restoreButton.setVisible(true);
             restoreButton.setManaged(true);
@@ -327,6 +841,7 @@ public class NotesApp extends Application {
 
             // read-only editor
             titleField.setEditable(false);
+            tagsField.setEditable(false);
             bodyArea.setEditable(false);
 
         } else {
@@ -352,6 +867,9 @@ public class NotesApp extends Application {
             sortBox.setVisible(true);
             sortBox.setManaged(true);
 
+            tagBox.setVisible(true);
+            tagBox.setManaged(true);
+
             // hide restore in Notes mode
             restoreButton.setVisible(false);
             restoreButton.setManaged(false);
@@ -360,6 +878,7 @@ public class NotesApp extends Application {
 
             // editable editor
             titleField.setEditable(true);
+            tagsField.setEditable(true);
             bodyArea.setEditable(true);
 
             searchField.setPromptText("Search...");
@@ -1,14 +1,21 @@
 package com.notes.app;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import com.notes.model.BodyEdits;
 import com.notes.model.Note;
+import com.notes.model.Rope;
+import com.notes.model.TextEdit;
 import com.notes.repo.NoteRepository;
 import com.notes.repo.Trash;
 import com.notes.search.SearchIndex;
@@ -137,4 +144,161 @@ class AppControllerTest {
 
         assertTrue(indexOfA < indexOfB);
     }
+
+    @Test
+    void search_repeatedQuery_isServedFromCache_untilNotesChange() {
+        Note created = controller.newNote();
+        controller.editNote(created.getId(), "Cache me", "Body");
+
+        controller.search("cache");
+        long misses = controller.getQueryCache().getMisses();
+        List<Note> again = controller.search("cache");
+
+        assertEquals(misses, controller.getQueryCache().getMisses());
+        assertEquals(1, controller.getQueryCache().getHits());
+        assertTrue(again.stream().anyMatch(n -> n.getId().equals(created.getId())));
+
+        controller.editNote(created.getId(), "Renamed", "Body");
+        List<Note> afterEdit = controller.search("cache");
+
+        assertEquals(misses + 1, controller.getQueryCache().getMisses());
+        assertTrue(afterEdit.stream().noneMatch(n -> n.getId().equals(created.getId())));
+    }
+
+    @Test
+    void search_afterEdits_seesChangesThroughIncrementalUpdates() {
+        Note note = controller.newNote();
+        controller.editNote(note.getId(), "Incremental", "quokka habitat");
+        assertTrue(ids(controller.search("quokka AND habitat")).contains(note.getId()));
+        long version = SearchIndex.getInstance().getVersion();
+
+        controller.editNote(note.getId(), "Incremental", "wombat habitat");
+        assertTrue(ids(controller.search("wombat AND habitat")).contains(note.getId()));
+        assertFalse(ids(controller.search("quokka AND habitat")).contains(note.getId()));
+        assertEquals(version + 1, SearchIndex.getInstance().getVersion());
+
+        controller.deleteNote(note.getId());
+        assertFalse(ids(controller.search("wombat AND habitat")).contains(note.getId()));
+    }
+
+    private static List<String> ids(List<Note> notes) {
+        return notes.stream().map(Note::getId).toList();
+    }
+
+    @Test
+    void loadSearchIndex_afterPurgeAndRestart_indexesNewEdits(@TempDir Path dir) {
+        Path data = dir.resolve("notes.dat");
+        Path index = dir.resolve("notes.idx");
+        Clock clock = () -> Instant.parse("2025-01-01T00:00:00Z");
+
+        NoteRepository first = new NoteRepository(new InMemoryLocalStorage(data), clock);
+        AppController session1 = new AppController(first, new Trash(30, clock), SearchIndex.getInstance(), new SortPreference());
+        Note kept = session1.newNote();
+        session1.editNote(kept.getId(), "Fruit", "apple");
+        Note purged = session1.newNote();
+        session1.deleteNote(purged.getId());
+        session1.emptyTrash(List.of(purged.getId()));
+        session1.saveSearchIndex(index);
+
+        NoteRepository second = new NoteRepository(new InMemoryLocalStorage(data), clock);
+        AppController session2 = new AppController(second, new Trash(30, clock), SearchIndex.getInstance(), new SortPreference());
+        session2.loadSearchIndex(index);
+        session2.editNote(kept.getId(), "Fruit", "cherry");
+
+        assertEquals(List.of(kept.getId()), ids(session2.search("cherry AND fruit")));
+        assertTrue(session2.search("apple AND fruit").isEmpty());
+    }
+
+    @Test
+    void refineSearch_filtersPreviousResults_forLongerQuery() {
+        Note first = controller.newNote();
+        controller.editNote(first.getId(), "Roadmap 2025", "");
+        Note second = controller.newNote();
+        controller.editNote(second.getId(), "Roadmap draft", "");
+
+        List<Note> previous = controller.search("roadmap");
+        List<Note> refined = controller.refineSearch("roadmap", previous, "roadmap d");
+
+        assertTrue(refined.stream().anyMatch(n -> n.getId().equals(second.getId())));
+        assertTrue(refined.stream().noneMatch(n -> n.getId().equals(first.getId())));
+    }
+
+    @Test
+    void tagFilter_appliesToListAndSearch() {
+        Note tagged = controller.newNote();
+        controller.editNote(tagged.getId(), "Tagfilter plan", "", List.of("tagfilter-test"));
+        Note untagged = controller.newNote();
+        controller.editNote(untagged.getId(), "Tagfilter other", "");
+
+        assertEquals(1, controller.getTagCounts().get("tagfilter-test"));
+
+        controller.setTagFilter(List.of("#TagFilter-Test"));
+        assertEquals(List.of(tagged.getId()), controller.getListOfNotes().stream().map(Note::getId).toList());
+        assertEquals(List.of(tagged.getId()), controller.search("tagfilter").stream().map(Note::getId).toList());
+
+        controller.setTagFilter(List.of());
+        assertEquals(2, controller.search("tagfilter").size());
+    }
+
+    @Test
+    void editNote_withoutChanges_isNotSaved() {
+        Note created = controller.newNote();
+        assertTrue(controller.editNote(created.getId(), "Same", "Body"));
+        long generation = controller.getGeneration();
+
+        assertFalse(controller.editNote(created.getId(), "Same", "Body"));
+        assertEquals(generation, controller.getGeneration());
+
+        assertTrue(controller.editNote(created.getId(), "Same", "Body", List.of("x")));
+        assertFalse(controller.editNote(created.getId(), "Same", "Body", List.of("#X")));
+    }
+
+    @Test
+    void editNote_withBodyEdits_appliesThemToTheStoredRope() {
+        Note created = controller.newNote();
+        String body = "x".repeat(100_000);
+        controller.editNote(created.getId(), "T", body, List.of());
+        Note stored = repo.getNoteById(created.getId());
+        Rope before = stored.getText();
+
+        String edited = "x".repeat(50_000) + "typed" + "x".repeat(50_000);
+        assertTrue(controller.editNote(created.getId(), "T", edited, List.of(), new BodyEdits(stored.getRevision(),
+                List.of(new TextEdit(50_000, 50_000, "type"), new TextEdit(50_004, 50_004, "d")))));
+        Rope after = repo.getNoteById(created.getId()).getText();
+        assertEquals(edited, after.toString());
+        // untouched chunks are shared, as with any other rope edit
+        assertSame(before.chunks().get(0), after.chunks().get(0));
+
+        assertFalse(controller.editNote(created.getId(), "T", edited, List.of(),
+                new BodyEdits(stored.getRevision(), List.of())));
+    }
+
+    @Test
+    void editNote_withBodyEditsFromAnOlderRevision_comparesTheWholeBody() {
+        Note created = controller.newNote();
+        long loaded = repo.getNoteById(created.getId()).getRevision();
+        controller.editNote(created.getId(), "T", "abc", List.of());
+
+        // the edits fit the stored length but were typed against the empty body
+        assertTrue(controller.editNote(created.getId(), "T", "abcdef", List.of(),
+                new BodyEdits(loaded, List.of(new TextEdit(0, 0, "zzz")))));
+        assertEquals("abcdef", repo.getNoteById(created.getId()).getContent());
+    }
+
+    @Test
+    void editNote_withNoBodyEditsFromAnOlderRevision_stillSavesTheBody() {
+        Note created = controller.newNote();
+        long loaded = repo.getNoteById(created.getId()).getRevision();
+        controller.editNote(created.getId(), "T", "abc", List.of());
+
+        assertTrue(controller.editNote(created.getId(), "T", "xyz", List.of(), new BodyEdits(loaded, List.of())));
+        assertEquals("xyz", repo.getNoteById(created.getId()).getContent());
+    }
+
+    @Test
+    void editNote_stampsOneTimestampFromClock() {
+        Note created = controller.newNote();
+        controller.editNote(created.getId(), "Title", "Body", List.of("t"));
+        assertEquals(Instant.parse("2025-01-01T00:00:00Z"), repo.getNoteById(created.getId()).getUpdatedAt());
+    }
 }
@@ -0,0 +1,144 @@
+package com.notes.app;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.notes.model.BodyEdits;
+import com.notes.model.Note;
+import com.notes.model.TextEdit;
+import com.notes.repo.NoteRepository;
+import com.notes.repo.Trash;
+import com.notes.search.SearchHit;
+import com.notes.search.SearchIndex;
+import com.notes.sort.SortPreference;
+import com.notes.storage.InMemoryLocalStorage;
+import com.notes.util.Clock;
+
+class AsyncAppControllerTest {
+
+    @TempDir
+    Path dir;
+
+    // stands in for the FX application thread
+    private ExecutorService ui;
+    private AppController controller;
+    private AsyncAppController async;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = () -> Instant.parse("2025-01-01T00:00:00Z");
+        NoteRepository repo = new NoteRepository(new InMemoryLocalStorage(dir.resolve("notes.dat")), clock);
+        controller = new AppController(repo, new Trash(30, clock), SearchIndex.getInstance(),
+                new SortPreference());
+        ui = Executors.newSingleThreadExecutor(r -> new Thread(r, "ui"));
+        async = new AsyncAppController(controller, ui, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        async.close();
+        ui.shutdownNow();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void results_areDeliveredOnResultExecutor() throws Exception {
+        String thread = await(async.newNote().thenApply(note -> Thread.currentThread().getName()));
+        assertEquals("ui", thread);
+    }
+
+    @Test
+    void writesToOneNote_applyInOrder_andReadsSeeThem() throws Exception {
+        Note note = await(async.newNote());
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            writes.add(async.editNote(note.getId(), "title " + i, "", List.of()));
+        }
+        // submitted after the edits, so it must observe the last one
+        List<Note> listed = await(async.getListOfNotes());
+        assertEquals("title 49", listed.get(0).getTitle());
+        for (CompletableFuture<Void> write : writes) {
+            await(write);
+        }
+    }
+
+    @Test
+    void deleteAndRestore_roundTrip() throws Exception {
+        Note note = await(async.newNote());
+        async.deleteNote(note.getId());
+        assertEquals(1, await(async.getDeletedNotes()).size());
+        async.restoreNote(note.getId());
+        assertEquals(0, await(async.getDeletedNotes()).size());
+        assertEquals(1, await(async.search("")).size());
+    }
+
+    @Test
+    void tagCountsAndHighlights_areSnapshotsTakenAfterEarlierEdits() throws Exception {
+        Note note = await(async.newNote());
+        async.editNote(note.getId(), "Budget", "quarterly budget review", List.of("work"));
+
+        assertEquals(Map.of("work", 1), await(async.getTagCounts()));
+        List<Note> results = await(async.search("review"));
+        Map<String, SearchHit> hits = await(async.highlight("review", results));
+        SearchHit hit = hits.get(note.getId());
+        assertEquals("review", hit.getSnippet().substring(
+                hit.getSnippetMatches().get(0).start(), hit.getSnippetMatches().get(0).end()));
+    }
+
+    @Test
+    void burstOfEdits_queuedBehindBusyWorker_isSavedOnce() throws Exception {
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try (AsyncAppController single = new AsyncAppController(controller, ui, worker)) {
+            Note note = await(single.newNote());
+            long generation = controller.getGeneration();
+
+            CountDownLatch release = new CountDownLatch(1);
+            worker.submit(() -> {
+                release.await();
+                return null;
+            });
+            CompletableFuture<Void> last = null;
+            for (int i = 0; i < 20; i++) {
+                last = single.editNote(note.getId(), "draft " + i, "", List.of());
+            }
+            release.countDown();
+            await(last);
+
+            assertEquals(generation + 1, controller.getGeneration());
+            assertEquals("draft 19", controller.openNote(note.getId()).getTitle());
+        }
+    }
+
+    @Test
+    void bodyEditsFollowingAnEdit_arePutAsideOnceSomethingElseChangedTheNote() throws Exception {
+        Note note = await(async.newNote());
+        String id = note.getId();
+        await(async.editNote(id, "T", "abc", List.of(), null));
+        long loaded = controller.openNote(id).getRevision();
+        await(async.editNote(id, "T", "abcd", List.of(), new BodyEdits(loaded, List.of(new TextEdit(3, 3, "d")))));
+        assertEquals("abcd", controller.openNote(id).getContent());
+
+        // saved from elsewhere, so the next batch no longer follows what is stored
+        controller.editNote(id, "T", "wxyz", List.of());
+        await(async.editNote(id, "T", "abcde", List.of(),
+                new BodyEdits(BodyEdits.FOLLOWS, List.of(new TextEdit(4, 4, "e")))));
+        assertEquals("abcde", controller.openNote(id).getContent());
+    }
+}
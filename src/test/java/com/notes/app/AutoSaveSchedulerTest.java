@@ -0,0 +1,134 @@
+package com.notes.app;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.notes.app.AutoSaveScheduler.Draft;
+import com.notes.model.Note;
+import com.notes.repo.NoteRepository;
+import com.notes.repo.Trash;
+import com.notes.search.SearchIndex;
+import com.notes.sort.SortPreference;
+import com.notes.storage.InMemoryLocalStorage;
+import com.notes.util.Clock;
+
+class AutoSaveSchedulerTest {
+
+    @TempDir
+    Path dir;
+
+    private AppController controller;
+    private AsyncAppController async;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = () -> Instant.parse("2025-01-01T00:00:00Z");
+        NoteRepository repo = new NoteRepository(new InMemoryLocalStorage(dir.resolve("notes.dat")), clock);
+        controller = new AppController(repo, new Trash(30, clock), SearchIndex.getInstance(), new SortPreference());
+        async = new AsyncAppController(controller, Runnable::run, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        async.close();
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void burstOfTyping_isSavedOnceAfterIdleDelay() throws Exception {
+        Note note = controller.newNote();
+        long generation = controller.getGeneration();
+        try (AutoSaveScheduler autoSave = new AutoSaveScheduler(async, Duration.ofMillis(100), Duration.ofSeconds(10))) {
+            for (int i = 1; i <= 10; i++) {
+                autoSave.markDirty(new Draft(note.getId(), "typing".substring(0, Math.min(6, i)), "", List.of(), 0));
+            }
+            assertTrue(autoSave.isDirty());
+            waitUntil(() -> autoSave.getSaveCount() == 1);
+
+            assertFalse(autoSave.isDirty());
+            assertEquals(1, autoSave.getSaveCount());
+            assertEquals(generation + 1, controller.getGeneration());
+            assertEquals("typing", controller.openNote(note.getId()).getTitle());
+            assertTrue(autoSave.getLastSaveNanos() > 0);
+        }
+    }
+
+    @Test
+    void continuousTyping_isSavedByMaxDelay() throws Exception {
+        Note note = controller.newNote();
+        try (AutoSaveScheduler autoSave = new AutoSaveScheduler(async, Duration.ofMillis(200), Duration.ofMillis(300))) {
+            long start = System.nanoTime();
+            int i = 0;
+            // keep typing faster than the idle delay for well past the max delay
+            while (autoSave.getSaveCount() == 0 && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5)) {
+                autoSave.markDirty(new Draft(note.getId(), "t" + i++, "", List.of(), 0));
+                Thread.sleep(20);
+            }
+            assertTrue(autoSave.getSaveCount() >= 1);
+        }
+    }
+
+    @Test
+    void flush_savesImmediately_andIsNoOpWhenClean() throws Exception {
+        Note note = controller.newNote();
+        try (AutoSaveScheduler autoSave = new AutoSaveScheduler(async, Duration.ofSeconds(30), Duration.ofSeconds(60))) {
+            autoSave.flush().get(5, TimeUnit.SECONDS);
+            assertEquals(0, autoSave.getSaveCount());
+
+            autoSave.markDirty(new Draft(note.getId(), "Now", "body", List.of("x"), 0));
+            autoSave.flush().get(5, TimeUnit.SECONDS);
+            assertEquals("Now", controller.openNote(note.getId()).getTitle());
+            assertEquals(1, autoSave.getSaveCount());
+        }
+    }
+
+    @Test
+    void draftFor_coversFlushedDrafts_untilTheirSaveCompletes() throws Exception {
+        Note note = controller.newNote();
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try (AsyncAppController single = new AsyncAppController(controller, Runnable::run, worker);
+             AutoSaveScheduler autoSave = new AutoSaveScheduler(single, Duration.ofSeconds(30), Duration.ofSeconds(60))) {
+            CountDownLatch release = new CountDownLatch(1);
+            worker.submit(() -> {
+                release.await();
+                return null;
+            });
+            Draft draft = new Draft(note.getId(), "Typed", "not saved yet", List.of(), 0);
+            autoSave.markDirty(draft);
+            assertEquals(draft, autoSave.draftFor(note.getId()));
+
+            // the save is queued behind the busy worker, so the repository is still stale
+            CompletableFuture<Void> saved = autoSave.flush();
+            assertFalse(autoSave.isDirty());
+            assertEquals(draft, autoSave.draftFor(note.getId()));
+            assertEquals("", controller.openNote(note.getId()).getTitle());
+
+            release.countDown();
+            saved.get(5, TimeUnit.SECONDS);
+            assertNull(autoSave.draftFor(note.getId()));
+            assertEquals("Typed", controller.openNote(note.getId()).getTitle());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.notes.app;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.notes.app.AutoSaveScheduler.Draft;
+import com.notes.app.EditJournal.Field;
+import com.notes.model.Rope;
+
+class EditJournalTest {
+
+    @TempDir
+    Path dir;
+
+    // the repository's bodies by note id, as recovery sees them
+    private final Map<String, String> saved = new HashMap<>();
+
+    @Test
+    void recover_replaysEditsOnTopOfBegin() throws IOException {
+        Path file = dir.resolve("notes.journal");
+        try (EditJournal journal = new EditJournal(file)) {
+            saved.put("n1", "Hello");
+            journal.begin("n1", "Title", "Hello", "work");
+            journal.edit("n1", Field.BODY, 5, 5, " world");
+            journal.edit("n1", Field.BODY, 0, 1, "J");
+            journal.edit("n1", Field.TITLE, 0, 5, "Plan");
+            journal.edit("n1", Field.TAGS, 4, 4, ", idea");
+        }
+
+        Map<String, Draft> drafts = EditJournal.recover(file, saved::get);
+        Draft draft = drafts.get("n1");
+        assertEquals("Plan", draft.title());
+        assertEquals("Jello world", draft.body());
+        assertEquals(List.of("work", "idea"), draft.tags());
+        assertEquals(5, draft.version());
+    }
+
+    @Test
+    void saved_dropsCoveredEdits_andKeepsLaterOnes() throws IOException {
+        Path file = dir.resolve("notes.journal");
+        try (EditJournal journal = new EditJournal(file)) {
+            journal.begin("a", "A", "", "");
+            long savedAt = journal.edit("a", Field.BODY, 0, 0, "x");
+            journal.begin("b", "B", "", "");
+            journal.edit("b", Field.BODY, 0, 0, "y");
+            journal.edit("a", Field.BODY, 1, 1, "z");
+
+            // the save covered "x" but not "z"
+            journal.saved("a", savedAt, "x");
+            journal.saved("b", journal.lastSequence("b"), "y");
+        }
+        saved.put("a", "x");
+        saved.put("b", "y");
+
+        Map<String, Draft> drafts = EditJournal.recover(file, saved::get);
+        assertEquals(List.of("a"), List.copyOf(drafts.keySet()));
+        assertEquals("xz", drafts.get("a").body());
+    }
+
+    @Test
+    void saved_truncatesOnceEverythingIsSaved() throws IOException {
+        Path file = dir.resolve("notes.journal");
+        try (EditJournal journal = new EditJournal(file)) {
+            journal.begin("a", "A", "", "");
+            journal.edit("a", Field.BODY, 0, 0, "text");
+            journal.sync();
+            assertTrue(Files.size(file) > 0);
+
+            journal.saved("a", journal.lastSequence("a"), "text");
+            journal.sync();
+            assertEquals(0, Files.size(file));
+            assertEquals(0, journal.lastSequence("a"));
+        }
+        assertTrue(EditJournal.recover(file, saved::get).isEmpty());
+    }
+
+    @Test
+    void recover_stopsAtTornTail() throws IOException {
+        Path file = dir.resolve("notes.journal");
+        try (EditJournal journal = new EditJournal(file)) {
+            journal.begin("a", "A", "", "");
+            journal.edit("a", Field.BODY, 0, 0, "kept");
+        }
+        // half a record, as if the process died mid-write
+        Files.write(file, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        saved.put("a", "");
+        assertEquals("kept", EditJournal.recover(file, saved::get).get("a").body());
+        assertTrue(EditJournal.recover(dir.resolve("missing.journal"), saved::get).isEmpty());
+    }
+
+    @Test
+    void begin_logsOnlyAFingerprintOfTheBody() throws IOException {
+        Path file = dir.resolve("notes.journal");
+        String body = "a long saved body ".repeat(1_000);
+        try (EditJournal journal = new EditJournal(file)) {
+            journal.begin("a", "A", body, "");
+            journal.edit("a", Field.BODY, 0, 0, "new ");
+        }
+        assertTrue(Files.size(file) < 200);
+
+        saved.put("a", body);
+        assertEquals("new " + body, EditJournal.recover(file, saved::get).get("a").body());
+    }
+
+    @Test
+    void fingerprint_ofARope_matchesItsString() {
+        String body = "a long saved body ".repeat(1_000);
+        Rope rope = Rope.of(body).insert(500, "typed");
+        assertTrue(rope.chunks().size() > 1);
+        assertEquals(EditJournal.fingerprint(rope.toString()), EditJournal.fingerprint(rope));
+    }
+
+    @Test
+    void recover_skipsEdits_whenTheRepositoryHoldsNoLoggedRevision() throws IOException {
+        Path file = dir.resolve("notes.journal");
+        try (EditJournal journal = new EditJournal(file)) {
+            journal.begin("a", "A", "one", "");
+            journal.edit("a", Field.BODY, 3, 3, "!");
+        }
+        // changed behind the journal's back: offsets no longer point anywhere meaningful
+        saved.put("a", "something else");
+        assertFalse(EditJournal.recover(file, saved::get).containsKey("a"));
+        saved.remove("a");
+        assertFalse(EditJournal.recover(file, saved::get).containsKey("a"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.notes.app;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.notes.model.Note;
+import com.notes.repo.NoteRepository;
+import com.notes.repo.Trash;
+import com.notes.search.SearchIndex;
+import com.notes.sort.SortPreference;
+import com.notes.storage.InMemoryLocalStorage;
+import com.notes.util.Clock;
+
+class LiveSearchTest {
+
+    @TempDir
+    Path dir;
+
+    private AppController controller;
+    private LiveSearch liveSearch;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = () -> Instant.parse("2025-01-01T00:00:00Z");
+        NoteRepository repo = new NoteRepository(new InMemoryLocalStorage(dir.resolve("notes.dat")), clock);
+        controller = new AppController(repo, new Trash(30, clock), SearchIndex.getInstance(), new SortPreference());
+        liveSearch = new LiveSearch(controller, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        liveSearch.close();
+    }
+
+    private List<String> titlesFor(String query) throws Exception {
+        CompletableFuture<List<Note>> result = new CompletableFuture<>();
+        liveSearch.submit(query, result::complete);
+        return result.get(5, TimeUnit.SECONDS).stream().map(Note::getTitle).sorted().toList();
+    }
+
+    @Test
+    void submit_extendingQuery_refinesPreviousResults() throws Exception {
+        Note a = controller.newNote();
+        controller.editNote(a.getId(), "deploy api", "");
+        Note b = controller.newNote();
+        controller.editNote(b.getId(), "deploy web", "");
+
+        assertEquals(List.of("deploy api", "deploy web"), titlesFor("dep"));
+        assertEquals(List.of("deploy api"), titlesFor("deploy a"));
+        assertEquals(List.of("deploy api", "deploy web"), titlesFor("deploy"));
+    }
+
+    @Test
+    void submit_afterEdit_doesNotRefineStaleResults() throws Exception {
+        Note a = controller.newNote();
+        controller.editNote(a.getId(), "alpha", "");
+        Note b = controller.newNote();
+        controller.editNote(b.getId(), "beta", "");
+
+        assertEquals(List.of("alpha"), titlesFor("alp"));
+        controller.editNote(b.getId(), "alphabet", "");
+        assertEquals(List.of("alpha", "alphabet"), titlesFor("alph"));
+    }
+
+    @Test
+    void submit_waitsForWritesQueuedBeforeIt() throws Exception {
+        Note note = controller.newNote();
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try (AsyncAppController async = new AsyncAppController(controller, Runnable::run, worker);
+             LiveSearch afterWrites = new LiveSearch(controller, Runnable::run, async::whenWritten)) {
+            CountDownLatch release = new CountDownLatch(1);
+            worker.submit(() -> {
+                release.await();
+                return null;
+            });
+            // the save is still queued behind the busy worker when the search is submitted
+            async.editNote(note.getId(), "just typed", "", List.of());
+            CompletableFuture<List<Note>> result = new CompletableFuture<>();
+            afterWrites.submit("just typed", result::complete);
+            release.countDown();
+
+            assertEquals(List.of(note.getId()),
+                    result.get(5, TimeUnit.SECONDS).stream().map(Note::getId).toList());
+        }
+    }
+
+    @Test
+    void cancel_dropsPendingResult() throws Exception {
+        controller.newNote();
+        // hold results back like the UI thread would, so the search always finishes first
+        BlockingQueue<Runnable> delivered = new LinkedBlockingQueue<>();
+        try (LiveSearch queued = new LiveSearch(controller, delivered::add)) {
+            CompletableFuture<List<Note>> first = new CompletableFuture<>();
+            queued.submit("x", first::complete);
+            Runnable inFlight = delivered.poll(5, TimeUnit.SECONDS);
+            queued.cancel();
+
+            if (inFlight != null) {
+                inFlight.run();
+            }
+            assertEquals(false, first.isDone());
+        }
+    }
+}
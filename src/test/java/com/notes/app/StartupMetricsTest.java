@@ -0,0 +1,28 @@
+package com.notes.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.notes.app.StartupMetrics.Phase;
+
+class StartupMetricsTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void phases_reportMillisSinceStart_firstMarkWins() {
+        StartupMetrics metrics = new StartupMetrics(1_000 * MS);
+        metrics.mark(Phase.FIRST_PAINT, 1_120 * MS);
+        metrics.mark(Phase.FIRST_NOTES, 1_900 * MS);
+        metrics.mark(Phase.FIRST_PAINT, 5_000 * MS);
+
+        assertEquals(120, metrics.millis(Phase.FIRST_PAINT));
+        assertEquals(900, metrics.millis(Phase.FIRST_NOTES));
+        assertEquals(-1, metrics.millis(Phase.SEARCH_READY));
+        assertTrue(metrics.reached(Phase.FIRST_NOTES));
+        assertFalse(metrics.reached(Phase.STORAGE_LOADED));
+        assertEquals("first paint 120 ms, first notes 900 ms", metrics.summary());
+    }
+}
@@ -0,0 +1,71 @@
+package com.notes.jfr;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.notes.model.Note;
+import com.notes.search.SearchIndex;
+import com.notes.sort.SortPreference;
+import com.notes.storage.InMemoryLocalStorage;
+
+class NotesEventsTest {
+
+    @Test
+    void notesProfile_recordsStorageSearchAndSort(@TempDir Path dir) throws Exception {
+        Configuration notes;
+        try (Reader jfc = new InputStreamReader(
+                NotesEventsTest.class.getResourceAsStream("/notes.jfc"), StandardCharsets.UTF_8)) {
+            notes = Configuration.create(jfc);
+        }
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        List<Note> corpus = List.of(
+                new Note("1", "Budget", "quarterly budget review", now, now, null),
+                new Note("2", "Trip", "travel plans", now, now, null));
+
+        Path file = dir.resolve("recording.jfr");
+        try (Recording recording = new Recording(notes)) {
+            recording.start();
+            new InMemoryLocalStorage(dir.resolve("notes.dat")).write("notes", "value");
+            new InMemoryLocalStorage(dir.resolve("notes.dat"));
+            SearchIndex index = SearchIndex.getInstance();
+            index.index(corpus);
+            index.search("budget");
+            new SortPreference(Locale.ROOT).apply(corpus);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, List<RecordedEvent>> byType = RecordingFile.readAllEvents(file).stream()
+                .collect(Collectors.groupingBy(e -> e.getEventType().getName()));
+
+        RecordedEvent flush = byType.get("com.notes.StorageFlush").get(0);
+        assertTrue(flush.getLong("bytes") > 0);
+        assertEquals(1, byType.get("com.notes.StorageLoad").get(0).getInt("entries"));
+
+        RecordedEvent search = byType.get("com.notes.Search").get(0);
+        assertEquals(6, search.getInt("queryLength"));
+        assertEquals(1, search.getInt("hits"));
+        assertEquals(2, search.getInt("indexedNotes"));
+
+        RecordedEvent sort = byType.get("com.notes.Sort").get(0);
+        assertEquals("SEQUENTIAL", sort.getString("strategy"));
+        assertEquals(2, sort.getInt("notes"));
+    }
+}
@@ -0,0 +1,61 @@
+package com.notes.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LoadTestTest {
+
+    @Test
+    void parse_overridesDefaults() {
+        Workload w = Workload.parse(new String[] {
+                "--notes=500", "--users=3", "--seconds=1.5", "--mix=edit:1,search:3", "--dir=/tmp/x"});
+
+        assertEquals(500, w.notes());
+        assertEquals(3, w.users());
+        assertEquals(Duration.ofMillis(1500), w.duration());
+        assertEquals(Map.of(Operation.EDIT, 1, Operation.SEARCH, 3), w.mix());
+        assertEquals(Path.of("/tmp/x"), w.dir());
+        assertThrows(IllegalArgumentException.class, () -> Workload.parse(new String[] {"--bogus=1"}));
+    }
+
+    @Test
+    void bodies_followTheDistributionWithinTheCap() {
+        Workload w = Workload.defaults();
+        Random random = new Random(49);
+        int longest = 0;
+        long total = 0;
+        for (int i = 0; i < 2000; i++) {
+            int length = w.body(random).length();
+            longest = Math.max(longest, length);
+            total += length;
+        }
+        assertTrue(longest <= w.maxBodyChars());
+        // log-normal: the mean sits above the median
+        assertTrue(total / 2000 > w.medianBodyChars() / 2);
+        assertTrue(longest > w.medianBodyChars() * 3);
+    }
+
+    @Test
+    void run_drivesEveryOperation_concurrently(@TempDir Path dir) throws Exception {
+        Workload w = new Workload(200, 3, Duration.ZERO, Duration.ofMillis(1500), 200, 1.0, 5000,
+                Workload.defaults().mix(), 7, dir);
+
+        LoadTest.Report report = new LoadTest(w).run();
+
+        assertEquals(0, report.errors());
+        assertTrue(report.operations() > 0);
+        assertTrue(report.fileBytes() > 0);
+        for (Operation op : new Operation[] {Operation.EDIT, Operation.SEARCH, Operation.LIST}) {
+            assertTrue(report.latencies().get(op).count() > 0, op + " never ran");
+        }
+        assertTrue(report.format().contains("ops/s"));
+    }
+}
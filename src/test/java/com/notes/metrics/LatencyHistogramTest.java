@@ -0,0 +1,50 @@
+package com.notes.metrics;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void buckets_coverEveryValue_withinThreePercent() {
+        Random random = new Random(47);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            int index = LatencyHistogram.index(value);
+            long upper = LatencyHistogram.upperBound(index);
+            assertTrue(upper >= value, "value " + value);
+            assertTrue(upper - value <= value / 32, "value " + value + " reported as " + upper);
+        }
+        assertEquals(0, LatencyHistogram.index(0));
+        assertEquals(31, LatencyHistogram.upperBound(LatencyHistogram.index(31)));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.index(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void percentiles_matchRecordedDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1..10_000 microseconds, once each
+        for (int us = 1; us <= 10_000; us++) {
+            histogram.record(us * 1000L);
+        }
+
+        assertEquals(10_000, histogram.count());
+        assertEquals(10_000_000, histogram.max());
+        assertEquals(5_000_500, histogram.mean(), 1);
+        assertEquals(5_000_000, histogram.percentile(0.5), 5_000_000 / 32.0);
+        assertEquals(9_900_000, histogram.percentile(0.99), 9_900_000 / 32.0);
+        assertEquals(10_000_000, histogram.percentile(1.0));
+        assertEquals(0, new LatencyHistogram().percentile(0.99));
+    }
+
+    @Test
+    void negativeDurations_countAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.count());
+        assertEquals(0, histogram.max());
+    }
+}
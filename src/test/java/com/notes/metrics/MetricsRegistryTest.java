@@ -0,0 +1,61 @@
+package com.notes.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class MetricsRegistryTest {
+
+    @Test
+    void sameName_returnsSameMetric() {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertSame(registry.counter("a"), registry.counter("a"));
+        assertSame(registry.histogram("h"), registry.histogram("h"));
+    }
+
+    @Test
+    void mbean_exposesCountersGaugesAndHistogramStats() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("storage.bytesWritten").add(4096);
+        registry.gauge("repository.notes", () -> 42);
+        LatencyHistogram save = registry.histogram("repository.save");
+        save.record(2_000_000);
+        save.record(4_000_000);
+
+        ObjectName name = registry.registerMBean("com.notes.test:type=Metrics");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(4096L, server.getAttribute(name, "storage.bytesWritten"));
+            assertEquals(42.0, server.getAttribute(name, "repository.notes"));
+            assertEquals(2L, server.getAttribute(name, "repository.save.count"));
+            assertEquals(4000.0, (double) server.getAttribute(name, "repository.save.max"), 0.001);
+
+            // metrics added after registration are listed too
+            registry.counter("later");
+            Set<String> attributes = Arrays.stream(server.getMBeanInfo(name).getAttributes())
+                    .map(MBeanAttributeInfo::getName)
+                    .collect(Collectors.toSet());
+            assertTrue(attributes.containsAll(Set.of("later", "repository.save.p99", "repository.save.mean")));
+
+            ReflectionException noOperation = assertThrows(ReflectionException.class,
+                    () -> server.invoke(name, "reset", new Object[0], new String[0]));
+            assertTrue(noOperation.getTargetException() instanceof NoSuchMethodException);
+        } finally {
+            registry.unregisterMBean();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
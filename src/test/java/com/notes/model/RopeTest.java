@@ -0,0 +1,159 @@
+package com.notes.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RopeTest {
+
+    private static String text(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        return sb.toString();
+    }
+
+    private static int sharedChunks(Rope a, Rope b) {
+        Set<String> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        seen.addAll(a.chunks());
+        int shared = 0;
+        for (String chunk : b.chunks()) {
+            if (seen.contains(chunk)) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(T value) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+
+    @Test
+    void randomEdits_matchStringBuilder() {
+        Random random = new Random(44);
+        StringBuilder expected = new StringBuilder(text(5000));
+        Rope rope = Rope.of(expected.toString());
+        for (int i = 0; i < 2000; i++) {
+            int start = random.nextInt(expected.length() + 1);
+            int end = Math.min(expected.length(), start + random.nextInt(20));
+            String insert = random.nextInt(3) == 0 ? "" : text(random.nextInt(30));
+            expected.replace(start, end, insert);
+            rope = rope.replace(start, end, insert);
+        }
+        assertEquals(expected.toString(), rope.toString());
+        assertEquals(expected.length(), rope.length());
+        assertEquals(expected.charAt(expected.length() / 2), rope.charAt(rope.length() / 2));
+        assertEquals(expected.substring(100, 2100), rope.subSequence(100, 2100).toString());
+    }
+
+    @Test
+    void smallEdit_sharesAllButOneChunk() {
+        Rope big = Rope.of(text(1_000_000));
+        Rope edited = big.insert(500_000, "hello");
+
+        assertEquals(1_000_005, edited.length());
+        assertTrue(sharedChunks(big, edited) >= big.chunks().size() - 2);
+        assertEquals("hello", edited.subSequence(500_000, 500_005).toString());
+    }
+
+    @Test
+    void replaceWith_keepsUnchangedHeadAndTail() {
+        String before = text(100_000);
+        Rope rope = Rope.of(before);
+        String after = before.substring(0, 70_000) + "typed" + before.substring(70_000);
+
+        Rope edited = rope.replaceWith(after);
+
+        assertEquals(after, edited.toString());
+        assertTrue(sharedChunks(rope, edited) >= rope.chunks().size() - 2);
+        assertSame(rope, rope.replaceWith(new String(before)));
+    }
+
+    @Test
+    void contentEquals_comparesText() {
+        Rope rope = Rope.of(text(3000)).delete(10, 20);
+        String expected = text(3000).substring(0, 10) + text(3000).substring(20);
+
+        assertTrue(rope.contentEquals(expected));
+        assertFalse(rope.contentEquals(expected + "x"));
+        assertFalse(rope.contentEquals(expected.replace('a', 'b')));
+        assertTrue(Rope.EMPTY.contentEquals(""));
+    }
+
+    @Test
+    void indexOfIgnoreCase_findsMatchesAcrossLeaves() {
+        // "Boundary" starts 3 chars before the end of the first leaf
+        String head = text(Rope.LEAF_SIZE - 3);
+        Rope rope = Rope.of(head + "BoUnDaRy" + text(3000)).replace(5, 5, "x");
+
+        assertEquals(head.length() + 1, rope.indexOfIgnoreCase("boundary"));
+        assertEquals(0, rope.indexOfIgnoreCase("ABCDE"));
+        assertEquals(-1, rope.indexOfIgnoreCase("boundaryz"));
+        assertEquals(-1, Rope.EMPTY.indexOfIgnoreCase("a"));
+        assertEquals(0, Rope.EMPTY.indexOfIgnoreCase(""));
+        for (int i = 0; i < 200; i += 37) {
+            String expected = rope.toString().substring(i, i + 40);
+            assertEquals(rope.toString().toLowerCase().indexOf(expected.toLowerCase()),
+                    rope.indexOfIgnoreCase(expected.toUpperCase()));
+        }
+    }
+
+    @Test
+    void serialization_streamsChunks() throws Exception {
+        Rope rope = Rope.of(text(10_000)).replace(5000, 5010, "ünïcödé ✓");
+
+        Rope copy = roundTrip(rope);
+
+        assertEquals(rope.toString(), copy.toString());
+        assertEquals(0, roundTrip(Rope.EMPTY).length());
+    }
+
+    @Test
+    void note_mementoSharesRope_andSurvivesSerialization() throws Exception {
+        Note note = new Note("T", text(50_000), Instant.parse("2025-01-01T00:00:00Z"));
+        NoteMemento memento = note.createMemento();
+        assertSame(note.getText(), memento.getText());
+
+        note.editContent(0, 5, "start", Instant.parse("2025-01-02T00:00:00Z"));
+        assertEquals("start" + text(50_000).substring(5), note.getContent());
+        assertEquals(text(50_000), memento.getContent());
+
+        Note copy = roundTrip(note);
+        assertEquals(note.getContent(), copy.getContent());
+        assertTrue(copy.hasContent(note.getContent()));
+
+        note.restore(memento);
+        assertEquals(text(50_000), note.getContent());
+    }
+
+    @Test
+    void note_nullContent_staysNull() {
+        Note note = new Note("T", null, Instant.parse("2025-01-01T00:00:00Z"));
+        assertEquals(null, note.getContent());
+        assertTrue(note.hasContent(null));
+        note.updateContent("x");
+        assertEquals(List.of("x"), note.getText().chunks());
+    }
+}
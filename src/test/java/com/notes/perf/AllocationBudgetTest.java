@@ -0,0 +1,138 @@
+package com.notes.perf;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.notes.app.AppController;
+import com.notes.model.Note;
+import com.notes.repo.NoteRepository;
+import com.notes.repo.Trash;
+import com.notes.search.SearchIndex;
+import com.notes.sort.SortOrder;
+import com.notes.sort.SortPreference;
+import com.notes.storage.LocalStorage;
+import com.notes.util.Clock;
+
+// Fails when a hot path starts allocating noticeably more per call than it does today.
+// Budgets are per operation on a 1,000-note corpus, with headroom for JIT and JDK variation;
+// a breach means something new is being copied per note, not a few bytes of noise.
+class AllocationBudgetTest {
+
+    private static final int NOTES = 1000;
+    private static final int WARMUP = 3000;
+    private static final int RUNS = 2000;
+
+    private static final Instant T = Instant.parse("2025-01-01T00:00:00Z");
+    private static final String[] WORDS = {"meeting", "project", "budget", "draft", "review", "plan", "travel"};
+
+    private static NoteRepository repository;
+    private static AppController controller;
+    private static SearchIndex index;
+    private static SortPreference sortPreference;
+    private static List<Note> notes;
+
+    @BeforeAll
+    static void setUp() {
+        assumeTrue(Allocations.supported(), "per-thread allocation counting not available");
+
+        Random random = new Random(50);
+        notes = new ArrayList<>();
+        for (int i = 0; i < NOTES; i++) {
+            notes.add(new Note("n" + i, words(random, 3), words(random, 40),
+                    T.plusSeconds(random.nextInt(1_000_000)), T.plusSeconds(random.nextInt(1_000_000)), null));
+        }
+        Clock clock = () -> T;
+        repository = new NoteRepository(memoryStorage(), clock);
+        repository.importNotes(notes);
+        sortPreference = new SortPreference(Locale.ROOT);
+        index = SearchIndex.getInstance();
+        controller = new AppController(repository, new Trash(30, clock), index, sortPreference);
+        index.index(repository.listNotes());
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    // keeps storage writes out of the numbers; InMemoryLocalStorage serializes everything
+    private static LocalStorage memoryStorage() {
+        Map<String, Object> values = new HashMap<>();
+        return new LocalStorage() {
+            @Override
+            public Object read(String key) {
+                return values.get(key);
+            }
+
+            @Override
+            public void write(String key, Object value) {
+                values.put(key, value);
+            }
+
+            @Override
+            public void delete(String key) {
+                values.remove(key);
+            }
+        };
+    }
+
+    private static void assertBudget(String operation, long budgetBytes, long actualBytes) {
+        assertTrue(actualBytes <= budgetBytes,
+                operation + " allocated " + actualBytes + " bytes/op, budget is " + budgetBytes);
+    }
+
+    @Test
+    void repositoryList() {
+        assertBudget("NoteRepository.listNotes", 10_000,
+                Allocations.perOperation(WARMUP, RUNS, repository::listNotes));
+    }
+
+    @Test
+    void controllerList() {
+        sortPreference.setSortOrder(SortOrder.LastModified);
+        assertBudget("AppController.getListOfNotes", 6_000,
+                Allocations.perOperation(WARMUP, RUNS, controller::getListOfNotes));
+    }
+
+    @Test
+    void search() {
+        assertBudget("SearchIndex.search", 24_000,
+                Allocations.perOperation(WARMUP, RUNS, () -> index.search("budget")));
+    }
+
+    @Test
+    void structuredSearch() {
+        assertBudget("SearchIndex.search structured", 12_000,
+                Allocations.perOperation(WARMUP, RUNS, () -> index.search("budget AND review")));
+    }
+
+    @Test
+    void sort() {
+        sortPreference.setSortOrder(SortOrder.TitleAZ);
+        assertBudget("SortPreference.apply", 12_000,
+                Allocations.perOperation(WARMUP / 10, RUNS / 10, () -> sortPreference.apply(notes)));
+    }
+
+    @Test
+    void save() {
+        Note note = notes.get(0);
+        assertBudget("NoteRepository.save", 4_096,
+                Allocations.perOperation(WARMUP, RUNS, () -> {
+                    repository.save(note);
+                    return note;
+                }));
+    }
+}
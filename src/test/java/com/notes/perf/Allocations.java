@@ -0,0 +1,37 @@
+package com.notes.perf;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import com.sun.management.ThreadMXBean;
+
+// Bytes the calling thread allocates per run of an operation, from the JVM's per-thread
+// allocation counter. Warm-up runs come first so the JIT has compiled (and escape-analysed)
+// the path being measured.
+final class Allocations {
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // results go here so the JIT cannot drop the work that produced them
+    static volatile Object sink;
+
+    private Allocations() {
+    }
+
+    static boolean supported() {
+        return THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled();
+    }
+
+    static long perOperation(int warmup, int runs, Supplier<?> operation) {
+        for (int i = 0; i < warmup; i++) {
+            sink = operation.get();
+        }
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < runs; i++) {
+            sink = operation.get();
+        }
+        long after = THREADS.getCurrentThreadAllocatedBytes();
+        sink = null;
+        return (after - before) / runs;
+    }
+}
@@ -2,6 +2,7 @@ package com.notes.repo;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -98,4 +99,67 @@ class NoteRepositoryTest {
         assertTrue(repo.listNotes().isEmpty());
         assertTrue(repo.listDeleted().isEmpty());
     }
+
+    @Test
+    void save_stampsNoteWithIncreasingRevision() {
+        Note n = repo.createNote("X", "");
+        long created = repo.getNoteById(n.getId()).getRevision();
+
+        n.updateTitle("Y");
+        repo.save(n);
+
+        assertTrue(repo.getNoteById(n.getId()).getRevision() > created);
+        assertEquals(repo.getGeneration(), repo.getNoteById(n.getId()).getRevision());
+    }
+
+    @Test
+    void generation_survivesRestart_evenAfterPurge() {
+        Note n = repo.createNote("Purged", "");
+        repo.moveToTrash(n.getId());
+        repo.purgeDeletedNotes(n.getId());
+        long generation = repo.getGeneration();
+
+        NoteRepository reopened = new NoteRepository(new InMemoryLocalStorage(),
+                () -> Instant.parse("2025-01-01T00:00:00Z"));
+        assertEquals(generation, reopened.getGeneration());
+    }
+
+    @Test
+    void tags_arePersisted_andCountedIncrementally() {
+        Note a = repo.createNote("A", "");
+        Note b = repo.createNote("B", "");
+        a.updateTags(List.of("#Work", "idea"));
+        repo.save(a);
+        b.updateTags(List.of("work"));
+        repo.save(b);
+
+        assertEquals(Map.of("idea", 1, "work", 2), repo.getTagCounts());
+        assertEquals(List.of("A"), repo.listNotesWithTags(List.of("work", "#IDEA"))
+                .stream().map(Note::getTitle).toList());
+
+        repo.moveToTrash(b.getId());
+        assertEquals(Map.of("idea", 1, "work", 1), repo.getTagCounts());
+        repo.restoreFromTrash(b.getId());
+        assertEquals(2, repo.getTagCounts().get("work"));
+
+        // a fresh repository rebuilds the index from the stored tags
+        NoteRepository reopened = new NoteRepository(new InMemoryLocalStorage(),
+                () -> Instant.parse("2025-01-01T00:00:00Z"));
+        assertEquals(Map.of("idea", 1, "work", 2), reopened.getTagCounts());
+    }
+
+    @Test
+    void importNotes_addsAllWithOneGeneration() {
+        Instant t = Instant.parse("2025-01-01T00:00:00Z");
+        long before = repo.getGeneration();
+
+        repo.importNotes(List.of(
+                new Note("imp-1", "One", "", t, t, null),
+                new Note("imp-2", "Two", "", t, t, t)));
+
+        assertEquals(before + 1, repo.getGeneration());
+        assertEquals(1, repo.countNotes());
+        assertEquals(1, repo.countDeleted());
+        assertEquals("One", repo.getNoteById("imp-1").getTitle());
+    }
 }
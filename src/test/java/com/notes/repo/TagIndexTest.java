@@ -0,0 +1,46 @@
+package com.notes.repo;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class TagIndexTest {
+
+    @Test
+    void counts_followEditsTrashAndRestore() {
+        TagIndex index = new TagIndex();
+        index.update(0, Set.of("work", "idea"), true);
+        index.update(1, Set.of("work"), true);
+        assertEquals(Map.of("idea", 1, "work", 2), index.counts());
+
+        // retag doc 0
+        index.update(0, Set.of("home"), true);
+        assertEquals(Map.of("home", 1, "work", 1), index.counts());
+
+        // trash doc 1, then restore it
+        index.update(1, Set.of("work"), false);
+        assertEquals(Map.of("home", 1), index.counts());
+        index.update(1, Set.of("work"), true);
+        assertEquals(Map.of("home", 1, "work", 1), index.counts());
+
+        index.remove(0);
+        assertEquals(Map.of("work", 1), index.counts());
+    }
+
+    @Test
+    void docsWithAll_intersectsTags_andSkipsTrashed() {
+        TagIndex index = new TagIndex();
+        index.update(0, Set.of("work", "urgent"), true);
+        index.update(1, Set.of("work"), true);
+        index.update(2, Set.of("work", "urgent"), false);
+
+        assertArrayEquals(new int[] {0, 1}, index.docsWithAll(Set.of("work")).toArray());
+        assertArrayEquals(new int[] {0}, index.docsWithAll(Set.of("work", "urgent")).toArray());
+        assertTrue(index.docsWithAll(Set.of("missing")).isEmpty());
+        assertArrayEquals(new int[] {0, 1}, index.docsWithAll(Set.of()).toArray());
+    }
+}
@@ -0,0 +1,60 @@
+package com.notes.search;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import com.notes.model.Note;
+
+class DateIndexTest {
+    private static Note n(String id, String created, String updated) {
+        return new Note(id, "t", "b", Instant.parse(created), Instant.parse(updated), null);
+    }
+
+    private static long s(String instant) {
+        return Instant.parse(instant).getEpochSecond();
+    }
+
+    @Test
+    void range_returnsDocsInHalfOpenInterval_inDocOrder() {
+        var notes = List.of(
+                n("0", "2026-03-01T00:00:00Z", "2026-09-05T00:00:00Z"),
+                n("1", "2025-12-31T00:00:00Z", "2026-08-01T00:00:00Z"),
+                n("2", "2026-01-01T00:00:00Z", "2026-09-01T00:00:00Z"));
+        var created = DateIndex.build(notes, Note::getCreatedAt);
+
+        assertArrayEquals(new int[] {1}, created.range(Long.MIN_VALUE, s("2026-01-01T00:00:00Z")).toArray());
+        assertArrayEquals(new int[] {0, 2}, created.range(s("2026-01-01T00:00:00Z"), Long.MAX_VALUE).toArray());
+        assertEquals(2, created.count(s("2026-01-01T00:00:00Z"), Long.MAX_VALUE));
+        assertEquals(0, created.count(s("2027-01-01T00:00:00Z"), s("2026-01-01T00:00:00Z")));
+        assertEquals(0, DateIndex.EMPTY.range(Long.MIN_VALUE, Long.MAX_VALUE).cardinality());
+    }
+
+    @Test
+    void build_handlesTimestampsTooFarApartToPack() {
+        var notes = List.of(
+                n("0", "2500-01-01T00:00:00Z", "2500-01-01T00:00:00Z"),
+                n("1", "1800-01-01T00:00:00Z", "1800-01-01T00:00:00Z"),
+                n("2", "2026-01-01T00:00:00Z", "2026-01-01T00:00:00Z"));
+        var created = DateIndex.build(notes, Note::getCreatedAt);
+        assertArrayEquals(new int[] {1, 2}, created.range(Long.MIN_VALUE, s("2100-01-01T00:00:00Z")).toArray());
+    }
+
+    @Test
+    void range_scalesToManyDocs() {
+        List<Note> notes = new ArrayList<>();
+        Instant base = Instant.parse("2026-01-01T00:00:00Z");
+        for (int i = 0; i < 10_000; i++) {
+            // descending so the build has to reorder
+            Instant t = base.plusSeconds(3600L * (10_000 - i));
+            notes.add(new Note(String.valueOf(i), "t", "b", t, t, null));
+        }
+        var updated = DateIndex.build(notes, Note::getUpdatedAt);
+        long from = base.plusSeconds(3600L * 9_998).getEpochSecond();
+        assertArrayEquals(new int[] {0, 1, 2}, updated.range(from, Long.MAX_VALUE).toArray());
+    }
+}
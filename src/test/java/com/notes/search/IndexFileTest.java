@@ -0,0 +1,76 @@
+package com.notes.search;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.notes.model.Note;
+
+class IndexFileTest {
+
+    @TempDir
+    Path dir;
+
+    private static Note n(String id, String title, String body) {
+        return new Note(id, title, body,
+                Instant.parse("2025-01-01T00:00:00Z"),
+                Instant.parse("2025-01-01T00:00:00Z"),
+                null);
+    }
+
+    @Test
+    void writeThenRead_roundTripsDictionaryAndDocIds() throws IOException {
+        var notes = List.of(n("a", "Alpha", "common"), n("b", "Beta", "common"), n("c", "Ünïcode", "common"));
+        var dict = TermDictionary.build(notes);
+        Path file = dir.resolve("notes.idx");
+
+        IndexFile.write(file, 42, List.of("a", "b", "c"), dict);
+        var contents = IndexFile.read(file);
+
+        assertEquals(42, contents.sequence());
+        assertArrayEquals(new String[] {"a", "b", "c"}, contents.docIds());
+        assertEquals(dict.size(), contents.dictionary().size());
+        for (int ord = 0; ord < dict.size(); ord++) {
+            assertEquals(dict.term(ord), contents.dictionary().term(ord));
+            assertArrayEquals(dict.postings(ord), contents.dictionary().postings(ord));
+            for (int k = 0; k < dict.postings(ord).length; k++) {
+                assertArrayEquals(dict.positions(ord, k), contents.dictionary().positions(ord, k));
+            }
+        }
+    }
+
+    @Test
+    void write_replacesAFileWhoseDictionaryIsStillUndecoded() throws IOException {
+        Path file = dir.resolve("notes.idx");
+        IndexFile.write(file, 1, List.of("a"), TermDictionary.build(List.of(n("a", "Alpha", "old"))));
+        var first = IndexFile.read(file);
+
+        // the first read's postings are still encoded and in use while the file is replaced
+        IndexFile.write(file, 2, List.of("b"), TermDictionary.build(List.of(n("b", "Beta", "new"))));
+        var second = IndexFile.read(file);
+
+        assertEquals(2, second.sequence());
+        assertArrayEquals(new String[] {"b"}, second.docIds());
+        for (int ord = 0; ord < first.dictionary().size(); ord++) {
+            assertArrayEquals(new int[] {0}, first.dictionary().postings(ord));
+        }
+    }
+
+    @Test
+    void read_truncatedFile_throwsIOException() throws IOException {
+        Path file = dir.resolve("notes.idx");
+        IndexFile.write(file, 1, List.of("a"), TermDictionary.build(List.of(n("a", "Alpha", "body"))));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> IndexFile.read(file));
+    }
+}
@@ -0,0 +1,17 @@
+package com.notes.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+class PostingListsTest {
+
+    @Test
+    void advance_findsFirstIndexAtOrAboveTarget() {
+        int[] list = {1, 3, 5, 7, 9, 11, 13};
+        assertEquals(0, PostingLists.advance(list, 0, 0));
+        assertEquals(2, PostingLists.advance(list, 0, 4));
+        assertEquals(2, PostingLists.advance(list, 0, 5));
+        assertEquals(6, PostingLists.advance(list, 3, 13));
+        assertEquals(7, PostingLists.advance(list, 0, 14));
+    }
+}
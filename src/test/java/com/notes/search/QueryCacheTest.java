@@ -0,0 +1,45 @@
+package com.notes.search;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+
+class QueryCacheTest {
+
+    @Test
+    void get_sameGeneration_returnsCachedIds_andCountsHit() {
+        var cache = new QueryCache();
+        cache.put(1, "alpha", List.of("1", "2"));
+
+        assertEquals(List.of("1", "2"), cache.get(1, "alpha"));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    void get_newerGeneration_misses() {
+        var cache = new QueryCache();
+        cache.put(1, "alpha", List.of("1"));
+
+        assertNull(cache.get(2, "alpha"));
+        assertEquals(1, cache.getMisses());
+
+        cache.put(2, "beta", List.of("3"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void put_beyondCapacity_evictsLeastRecentlyUsed() {
+        var cache = new QueryCache(2);
+        cache.put(1, "a", List.of("1"));
+        cache.put(1, "b", List.of("2"));
+        cache.get(1, "a");
+        cache.put(1, "c", List.of("3"));
+
+        assertEquals(List.of("1"), cache.get(1, "a"));
+        assertNull(cache.get(1, "b"));
+        assertEquals(List.of("3"), cache.get(1, "c"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.notes.search;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.notes.model.Note;
+
+class QueryParserTest {
+    private static Note n(String id, String title, String body) {
+        return new Note(id, title, body,
+                Instant.parse("2025-01-01T00:00:00Z"),
+                Instant.parse("2025-01-01T00:00:00Z"),
+                null);
+    }
+
+    private SearchIndex idx;
+
+    @BeforeEach
+    void setUp() {
+        idx = SearchIndex.getInstance();
+        idx.index(List.of(
+                n("1", "Deploy api", "rollback to staging if needed"),
+                n("2", "Deploy web", "rollback plan for production"),
+                n("3", "Release notes", "deploy happened, no rollback"),
+                n("4", "Rollback", "release notes draft")));
+    }
+
+    private List<String> ids(String query) {
+        return idx.search(query).stream().map(Note::getId).toList();
+    }
+
+    @Test
+    void isStructured_onlyForOperatorsPhrasesAndFields() {
+        assertFalse(QueryParser.isStructured("deploy rollback"));
+        assertFalse(QueryParser.isStructured("and or not"));
+        assertTrue(QueryParser.isStructured("deploy AND rollback"));
+        assertTrue(QueryParser.isStructured("deploy -staging"));
+        assertTrue(QueryParser.isStructured("\"release notes\""));
+        assertTrue(QueryParser.isStructured("title:deploy"));
+    }
+
+    @Test
+    void andWithExclusion() {
+        assertEquals(List.of("2", "3"), ids("deploy AND rollback -staging"));
+        assertEquals(List.of("2", "3"), ids("deploy rollback NOT staging"));
+    }
+
+    @Test
+    void orBindsLooserThanAnd() {
+        assertEquals(List.of("1", "4"), ids("staging OR draft"));
+        assertEquals(List.of("1", "2"), ids("(api OR web) deploy"));
+    }
+
+    @Test
+    void phrase_requiresConsecutiveWordsInOneField() {
+        assertEquals(List.of("3", "4"), ids("\"release notes\""));
+        assertEquals(List.of("2"), ids("\"rollback plan\""));
+        // "notes" ends the title and "deploy" starts the body: not a phrase
+        assertTrue(ids("\"notes deploy\"").isEmpty());
+    }
+
+    @Test
+    void fieldPrefix_restrictsToTitleOrBody() {
+        assertEquals(List.of("1", "2"), ids("title:deploy"));
+        assertEquals(List.of("3"), ids("body:deploy"));
+        assertEquals(List.of("4"), ids("body:\"release notes\""));
+    }
+
+    @Test
+    void pureNegation_returnsEverythingElse() {
+        assertEquals(List.of("4"), ids("-deploy"));
+    }
+
+    @Test
+    void malformedQueries_doNotThrow() {
+        assertTrue(ids("AND").isEmpty());
+        assertEquals(List.of("1"), ids("(staging"));
+        assertEquals(List.of("1"), ids("staging)"));
+        assertEquals(List.of("3", "4"), ids("\"release notes"));
+    }
+
+    @Test
+    void dateFilters_combineWithText() {
+        idx.index(List.of(
+                new Note("old", "Deploy", "", Instant.parse("2025-06-01T12:00:00Z"),
+                        Instant.parse("2025-06-02T12:00:00Z"), null),
+                new Note("new", "Deploy", "", Instant.parse("2026-02-01T12:00:00Z"),
+                        Instant.parse("2026-09-15T12:00:00Z"), null),
+                new Note("other", "Misc", "", Instant.parse("2026-02-01T12:00:00Z"),
+                        Instant.parse("2026-09-15T12:00:00Z"), null)));
+
+        assertTrue(QueryParser.isStructured("updated:>2026-09-01"));
+        assertEquals(List.of("new", "other"), ids("updated:>2026-09-01"));
+        assertEquals(List.of("old"), ids("deploy created:<2026-01-01"));
+        assertEquals(List.of("new"), ids("deploy updated:>=2026-09-01 created:>2026-01-01"));
+        assertEquals(List.of("old"), ids("deploy -updated:>2026-01-01"));
+        assertEquals(List.of("new", "other"), ids("created:2026-02-01"));
+        assertEquals(List.of("old"), ids("created:2025-06-01T12:00:00Z"));
+    }
+
+    @Test
+    void malformedDateFilter_isSearchedAsText() {
+        assertFalse(QueryParser.isStructured("updated:yesterday"));
+        assertTrue(ids("created:>2026-13-45").isEmpty());
+    }
+}
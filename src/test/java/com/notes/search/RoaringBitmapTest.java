@@ -0,0 +1,77 @@
+package com.notes.search;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RoaringBitmapTest {
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void addRemoveContains_acrossChunks() {
+        var bitmap = RoaringBitmap.of(5, 70_000, 3, 1 << 20);
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(4));
+        assertArrayEquals(new int[] {3, 5, 70_000, 1 << 20}, bitmap.toArray());
+
+        bitmap.remove(70_000);
+        bitmap.remove(12345);
+        assertEquals(3, bitmap.cardinality());
+        assertFalse(bitmap.contains(70_000));
+    }
+
+    @Test
+    void setAlgebra_matchesTreeSet_forSparseAndDenseChunks() {
+        Random random = new Random(7);
+        TreeSet<Integer> a = new TreeSet<>();
+        TreeSet<Integer> b = new TreeSet<>();
+        for (int i = 0; i < 30_000; i++) {
+            a.add(random.nextInt(100_000));        // dense chunk + sparse tail
+        }
+        for (int i = 0; i < 2_000; i++) {
+            b.add(random.nextInt(300_000));        // sparse everywhere
+        }
+        var ra = RoaringBitmap.fromSorted(toArray(a));
+        var rb = RoaringBitmap.fromSorted(toArray(b));
+
+        TreeSet<Integer> and = new TreeSet<>(a);
+        and.retainAll(b);
+        TreeSet<Integer> or = new TreeSet<>(a);
+        or.addAll(b);
+        TreeSet<Integer> andNot = new TreeSet<>(a);
+        andNot.removeAll(b);
+
+        assertArrayEquals(toArray(and), ra.and(rb).toArray());
+        assertArrayEquals(toArray(and), rb.and(ra).toArray());
+        assertArrayEquals(toArray(or), ra.or(rb).toArray());
+        assertArrayEquals(toArray(andNot), ra.andNot(rb).toArray());
+        assertEquals(a.size(), ra.cardinality());
+    }
+
+    @Test
+    void operations_doNotModifyOperands() {
+        var a = RoaringBitmap.range(0, 10_000);
+        var b = RoaringBitmap.of(1, 2, 3);
+        a.andNot(b);
+        a.and(b);
+        b.or(a);
+        assertEquals(10_000, a.cardinality());
+        assertEquals(3, b.cardinality());
+    }
+
+    @Test
+    void range_coversChunkBoundaries() {
+        var r = RoaringBitmap.range(65_530, 65_540);
+        assertArrayEquals(new int[] {65_530, 65_531, 65_532, 65_533, 65_534, 65_535,
+                65_536, 65_537, 65_538, 65_539}, r.toArray());
+        assertTrue(RoaringBitmap.range(3, 3).isEmpty());
+    }
+}
@@ -0,0 +1,71 @@
+package com.notes.search;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.notes.model.Note;
+
+class SearchHitTest {
+    private static Note n(String id, String title, String body) {
+        return new Note(id, title, body,
+                Instant.parse("2025-01-01T00:00:00Z"),
+                Instant.parse("2025-01-01T00:00:00Z"),
+                null);
+    }
+
+    @Test
+    void highlight_usesStoredOffsets_forTitleAndBody() {
+        var idx = SearchIndex.getInstance();
+        Note note = n("1", "Deploy plan", "First line. Then deploy again and DEPLOY later.");
+        idx.index(List.of(note));
+
+        SearchHit hit = idx.highlight("deploy", note);
+
+        assertEquals(List.of(new MatchSpan(0, 6)), hit.getTitleMatches());
+        assertEquals(List.of(new MatchSpan(17, 23), new MatchSpan(34, 40)), hit.getBodyMatches());
+        for (MatchSpan span : hit.getSnippetMatches()) {
+            assertEquals("deploy", hit.getSnippet().substring(span.start(), span.end()).toLowerCase());
+        }
+    }
+
+    @Test
+    void snippet_isWindowAroundFirstBodyMatch_inLargeNote() {
+        var idx = SearchIndex.getInstance();
+        String body = "filler ".repeat(150_000) + "needle " + "filler ".repeat(10);
+        Note note = n("1", "Big", body);
+        idx.index(List.of(note));
+
+        SearchHit hit = idx.highlight("needle", note);
+
+        assertTrue(hit.getSnippet().length() <= SearchHit.SNIPPET_LENGTH + 2);
+        assertTrue(hit.getSnippet().startsWith("…"));
+        assertEquals(1, hit.getSnippetMatches().size());
+        MatchSpan span = hit.getSnippetMatches().get(0);
+        assertEquals("needle", hit.getSnippet().substring(span.start(), span.end()));
+    }
+
+    @Test
+    void highlight_structuredQuery_skipsExcludedTerms() {
+        var idx = SearchIndex.getInstance();
+        Note note = n("1", "Release", "rollback notes");
+        idx.index(List.of(note));
+
+        SearchHit hit = idx.highlight("release -staging OR rollback", note);
+
+        assertEquals(1, hit.getTitleMatches().size());
+        assertEquals(List.of(new MatchSpan(0, 8)), hit.getBodyMatches());
+    }
+
+    @Test
+    void highlight_unindexedNote_hasNoMatches() {
+        var idx = SearchIndex.getInstance();
+        idx.index(List.of());
+        SearchHit hit = idx.highlight("anything", n("9", "T", "anything here"));
+        assertTrue(hit.getBodyMatches().isEmpty());
+        assertEquals("anything here", hit.getSnippet());
+    }
+}
@@ -1,11 +1,18 @@
 package com.notes.search;
 
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.notes.model.Note;
 
@@ -53,4 +60,155 @@ class SearchIndexTest {
         idx.index(List.of(n("1","A",""), n("2","B","")));
         assertTrue(idx.search("zzz").isEmpty());
     }
+
+    @Test
+    void searchFuzzy_toleratesTypos() {
+        var idx = SearchIndex.getInstance();
+        idx.index(List.of(n("1","Deploy plan","rollback steps"), n("2","Misc","nothing")));
+        assertTrue(idx.search("rolback").isEmpty());
+        assertEquals(1, idx.searchFuzzy("rolback").size());
+        assertEquals(1, idx.searchFuzzy("dpeloy rollbak", 2).size());
+        assertTrue(idx.searchFuzzy("rolback", 0).isEmpty());
+    }
+
+    @Test
+    void search_parallelShards_matchSequentialResultsInOrder() {
+        var idx = SearchIndex.getInstance();
+        List<Note> notes = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            notes.add(n(String.valueOf(i), "Note " + i, i % 7 == 0 ? "has Needle inside" : "hay"));
+        }
+        idx.index(notes);
+        List<Note> sequential = idx.search("needle");
+
+        int threshold = idx.getParallelThreshold();
+        int shards = idx.getShardCount();
+        try {
+            idx.setShardCount(4);
+            idx.setParallelThreshold(0);
+            assertEquals(sequential, idx.search("needle"));
+            assertEquals(143, sequential.size());
+        } finally {
+            idx.setShardCount(shards);
+            idx.setParallelThreshold(threshold);
+        }
+    }
+
+    @Test
+    void search_onInterruptedThread_isAbandoned() {
+        var idx = SearchIndex.getInstance();
+        List<Note> notes = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            notes.add(n(String.valueOf(i), "Note " + i, i % 7 == 0 ? "has Needle inside" : "hay"));
+        }
+        idx.index(notes);
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, () -> idx.search("needle"));
+            assertThrows(CancellationException.class, () -> idx.search("needle AND inside"));
+            assertThrows(CancellationException.class, () -> idx.searchFuzzy("neeedle"));
+            assertThrows(CancellationException.class, () -> idx.refine("needle", notes));
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(143, idx.search("needle").size());
+    }
+
+    @Test
+    void update_replacesChangedNotes_andDropsPurgedOnes() {
+        var idx = SearchIndex.getInstance();
+        Note edited = n("1", "Alpha", "old words");
+        Note purged = n("2", "Beta", "stays");
+        idx.index(List.of(edited, purged));
+        long version = idx.getVersion();
+
+        edited.updateContent("new words");
+        Map<String, Note> changes = new LinkedHashMap<>();
+        changes.put("1", edited);
+        changes.put("2", null);
+        changes.put("3", n("3", "Gamma", "new"));
+
+        assertEquals(version + 1, idx.update(version, changes));
+        assertEquals(2, idx.searchFuzzy("new", 0).size());
+        assertTrue(idx.searchFuzzy("old", 0).isEmpty());
+        assertTrue(idx.searchFuzzy("stays", 0).isEmpty());
+        assertEquals(List.of(edited), idx.search("new AND words"));
+        assertEquals(2, idx.search("").size());
+        assertEquals(List.of(edited), idx.search("WORDS"));
+        // someone else moved the index on: the caller must re-index
+        assertEquals(-1, idx.update(version, Map.of()));
+    }
+
+    @Test
+    void update_manyRounds_compactsAndKeepsResults() {
+        var idx = SearchIndex.getInstance();
+        List<Note> notes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            notes.add(n(String.valueOf(i), "Note " + i, "round0"));
+        }
+        idx.index(notes);
+        long version = idx.getVersion();
+        for (int round = 1; round <= 30; round++) {
+            Map<String, Note> changes = new LinkedHashMap<>();
+            for (Note note : notes) {
+                note.updateContent("round" + round);
+                changes.put(note.getId(), note);
+            }
+            version = idx.update(version, changes);
+            assertTrue(version > 0);
+        }
+        assertEquals(100, idx.searchFuzzy("round30", 0).size());
+        assertTrue(idx.searchFuzzy("round29", 0).isEmpty());
+        assertEquals(100, idx.search("round30 AND note").size());
+        assertEquals(100, idx.search("").size());
+    }
+
+    @Test
+    void restore_replaysOnlyNotesChangedSinceWrite(@TempDir Path dir) throws Exception {
+        var idx = SearchIndex.getInstance();
+        Note kept = n("1", "Alpha", "stable");
+        Note edited = n("2", "Beta", "old words");
+        Note removed = n("3", "Gamma", "gone");
+        idx.index(List.of(kept, edited, removed));
+        Path file = dir.resolve("notes.idx");
+        idx.writeTo(file, 10);
+
+        edited.updateContent("fresh words");
+        edited.setRevision(11);
+        Note added = n("4", "Delta", "fresh");
+        added.setRevision(12);
+
+        int replayed = idx.restore(file, List.of(kept, edited, added), 12);
+
+        assertEquals(2, replayed);
+        assertEquals(2, idx.searchFuzzy("fresh", 0).size());
+        assertTrue(idx.searchFuzzy("old", 0).isEmpty());
+        assertTrue(idx.searchFuzzy("gone", 0).isEmpty());
+        assertEquals(List.of(kept), idx.searchFuzzy("stable", 0));
+    }
+
+    @Test
+    void restore_indexNewerThanRepository_rebuildsEverything(@TempDir Path dir) throws Exception {
+        var idx = SearchIndex.getInstance();
+        Note note = n("1", "Alpha", "old");
+        idx.index(List.of(note));
+        Path file = dir.resolve("notes.idx");
+        idx.writeTo(file, 10);
+
+        note.updateContent("new");
+        note.setRevision(3);
+
+        assertEquals(1, idx.restore(file, List.of(note), 3));
+        assertEquals(1, idx.searchFuzzy("new", 0).size());
+        assertTrue(idx.searchFuzzy("old", 0).isEmpty());
+    }
+
+    @Test
+    void restore_missingFile_rebuildsEverything(@TempDir Path dir) {
+        var idx = SearchIndex.getInstance();
+        int replayed = idx.restore(dir.resolve("missing.idx"), List.of(n("1", "Alpha", ""), n("2", "Beta", "")), 0);
+        assertEquals(2, replayed);
+        assertEquals(1, idx.searchFuzzy("alpha", 0).size());
+    }
 }
@@ -0,0 +1,78 @@
+package com.notes.search;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import com.notes.model.Note;
+
+class TermDictionaryTest {
+    private static Note n(String id, String title, String body) {
+        return new Note(id, title, body,
+                Instant.parse("2025-01-01T00:00:00Z"),
+                Instant.parse("2025-01-01T00:00:00Z"),
+                null);
+    }
+
+    private static List<String> matches(TermDictionary dict, String word, int edits) {
+        List<String> out = new ArrayList<>();
+        for (int ord : dict.intersect(new LevenshteinAutomaton(word, edits))) {
+            out.add(dict.term(ord));
+        }
+        return out;
+    }
+
+    @Test
+    void build_sortsDistinctTerms_andRecordsPostings() {
+        var dict = TermDictionary.build(List.of(n("1", "Beta alpha", "alpha"), n("2", "alpha", "")));
+        assertEquals(2, dict.size());
+        assertEquals("alpha", dict.term(0));
+        assertEquals("beta", dict.term(1));
+        assertEquals(2, dict.postings(0).length);
+        assertEquals(1, dict.postings(1).length);
+    }
+
+    @Test
+    void append_mergesNewTerms_andExtendsPostings() {
+        List<Note> notes = new ArrayList<>(List.of(n("1", "beta", "delta")));
+        var dict = TermDictionary.build(notes);
+        notes.add(null);
+        notes.add(n("3", "Alpha beta", ""));
+
+        dict.append(notes, 1);
+
+        assertEquals(3, dict.size());
+        assertEquals("alpha", dict.term(0));
+        assertEquals("delta", dict.term(2));
+        assertArrayEquals(new int[] {2}, dict.postings(dict.find("alpha")));
+        assertArrayEquals(new int[] {0, 2}, dict.postings(dict.find("beta")));
+        assertArrayEquals(new int[] {0}, dict.postings(dict.find("delta")));
+        assertEquals(1, dict.bitmap(dict.find("alpha")).cardinality());
+    }
+
+    @Test
+    void intersect_matchesWithinEditDistance_only() {
+        var dict = TermDictionary.build(List.of(
+                n("1", "deploy deplay depot", "rollback roll"),
+                n("2", "deployment", "zebra")));
+        assertEquals(List.of("deplay", "deploy"), matches(dict, "deploy", 1));
+        assertEquals(List.of("deplay", "deploy", "depot"), matches(dict, "deploy", 2));
+        assertEquals(List.of("rollback"), matches(dict, "rolback", 1));
+        assertEquals(List.of("deploy"), matches(dict, "deploy", 0));
+    }
+
+    @Test
+    void intersect_skipsAcrossLargeDictionary() {
+        List<Note> notes = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            notes.add(n(String.valueOf(i), "word" + i, "term" + Integer.toString(i, 36)));
+        }
+        notes.add(n("x", "kubernetes", ""));
+        var dict = TermDictionary.build(notes);
+        assertEquals(List.of("kubernetes"), matches(dict, "kubernetse", 2));
+    }
+}
@@ -0,0 +1,29 @@
+package com.notes.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.notes.model.Rope;
+
+class TokenizerTest {
+
+    @Test
+    void rope_givesTheSameTokensAsItsString_acrossChunkBoundaries() {
+        // words straddle the 1024-char leaves, and the long one spans three of them
+        String text = "Alpha beta7 gamma, ".repeat(150) + "x".repeat(2500) + " Omega";
+        Rope rope = Rope.of(text);
+        assertTrue(rope.chunks().size() > 3);
+
+        List<String> fromString = new ArrayList<>();
+        Tokenizer.tokenize(text, (term, position, start, end) -> fromString.add(term + "@" + position + ":" + start + "-" + end));
+        List<String> fromRope = new ArrayList<>();
+        Tokenizer.tokenize(rope, (term, position, start, end) -> fromRope.add(term + "@" + position + ":" + start + "-" + end));
+
+        assertEquals(fromString, fromRope);
+        assertEquals("omega@451:5351-5356", fromRope.get(fromRope.size() - 1));
+    }
+}
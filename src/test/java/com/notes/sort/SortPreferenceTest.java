@@ -1,10 +1,14 @@
 package com.notes.sort;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import org.junit.jupiter.api.Test;
 
 import com.notes.model.Note;
@@ -68,4 +72,78 @@ class SortPreferenceTest {
         assertNotSame(list, out);
         assertEquals(List.of("B","A"), list.stream().map(Note::getTitle).toList());
     }
+
+    @Test
+    void apply_titleAZ_followsLocaleCollation() {
+        var notes = List.of(
+                n("1","Zebra","", "2025-01-01T00:00:00Z","2025-01-01T00:00:00Z"),
+                n("2","Ölfarbe","", "2025-01-01T00:00:00Z","2025-01-01T00:00:00Z"),
+                n("3","apple","", "2025-01-01T00:00:00Z","2025-01-01T00:00:00Z"),
+                n("4","Äpfel","", "2025-01-01T00:00:00Z","2025-01-01T00:00:00Z"));
+
+        var pref = new SortPreference(Locale.GERMAN);
+        pref.setSortOrder(SortOrder.TitleAZ);
+        assertEquals(List.of("Äpfel","apple","Ölfarbe","Zebra"),
+                pref.apply(notes).stream().map(Note::getTitle).toList());
+
+        // Swedish sorts Ä and Ö after Z
+        pref.setLocale(Locale.forLanguageTag("sv"));
+        assertEquals(List.of("apple","Zebra","Äpfel","Ölfarbe"),
+                pref.apply(notes).stream().map(Note::getTitle).toList());
+    }
+
+    @Test
+    void titleKey_isCached_untilTitleChanges() {
+        var note = n("1","Title","", "2025-01-01T00:00:00Z","2025-01-01T00:00:00Z");
+        var collator = java.text.Collator.getInstance(Locale.ROOT);
+
+        var key = note.getTitleKey(collator);
+        assertSame(key, note.getTitleKey(collator));
+
+        note.updateTitle("Other");
+        assertEquals("Other", note.getTitleKey(collator).getSourceString());
+    }
+
+    private static List<Note> randomNotes(int count) {
+        var random = new Random(11);
+        var base = Instant.parse("2025-01-01T00:00:00Z");
+        var notes = new ArrayList<Note>();
+        for (int i = 0; i < count; i++) {
+            // coarse values so equal keys are common
+            var created = base.plusSeconds(random.nextInt(500));
+            var updated = created.plusMillis(random.nextInt(1000));
+            notes.add(new Note("id" + i, "t" + random.nextInt(300), "", created, updated, null));
+        }
+        return notes;
+    }
+
+    @Test
+    void apply_parallelStrategy_matchesSequentialOrder() {
+        var notes = randomNotes(5_000);
+        var sequential = new SortPreference(Locale.ROOT);
+        sequential.setParallelThreshold(Integer.MAX_VALUE);
+        var parallel = new SortPreference(Locale.ROOT);
+        parallel.setParallelThreshold(1_000);
+
+        for (SortOrder order : SortOrder.values()) {
+            sequential.setSortOrder(order);
+            parallel.setSortOrder(order);
+            assertEquals(sequential.apply(notes), parallel.apply(notes));
+            assertEquals(SortStrategy.SEQUENTIAL, sequential.getLastStrategy());
+            assertEquals(SortStrategy.PARALLEL, parallel.getLastStrategy());
+        }
+    }
+
+    @Test
+    void apply_topK_returnsPrefixOfFullSort() {
+        var notes = randomNotes(3_000);
+        var pref = new SortPreference(Locale.ROOT);
+        for (SortOrder order : SortOrder.values()) {
+            pref.setSortOrder(order);
+            assertEquals(pref.apply(notes).subList(0, 25), pref.apply(notes, 25));
+            assertEquals(SortStrategy.TOP_K, pref.getLastStrategy());
+        }
+        assertEquals(List.of(), pref.apply(notes, 0));
+        assertEquals(3, pref.apply(notes.subList(0, 3), 10).size());
+    }
 }
@@ -0,0 +1,75 @@
+package com.notes.sort;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import com.notes.model.Note;
+
+class SortedNoteViewsTest {
+
+    private static Note n(String id, String title, String created, String updated) {
+        return new Note(id, title, "", Instant.parse(created), Instant.parse(updated), null);
+    }
+
+    private static List<String> titles(List<Note> notes) {
+        return notes.stream().map(Note::getTitle).toList();
+    }
+
+    @Test
+    void views_stayOrdered_acrossEditsTrashAndPurge() {
+        var views = new SortedNoteViews(new SortPreference(Locale.ROOT));
+        var a = n("1", "Beta", "2025-01-01T00:00:00Z", "2025-01-05T00:00:00Z");
+        var b = n("2", "alpha", "2025-01-02T00:00:00Z", "2025-01-03T00:00:00Z");
+        var c = n("3", "Gamma", "2025-01-03T00:00:00Z", "2025-01-04T00:00:00Z");
+        views.noteChanged(a);
+        views.noteChanged(b);
+        views.noteChanged(c);
+
+        assertEquals(List.of("Beta", "Gamma", "alpha"), titles(views.list(SortOrder.LastModified, false)));
+        assertEquals(List.of("Gamma", "alpha", "Beta"), titles(views.list(SortOrder.CreatedDate, false)));
+        assertEquals(List.of("alpha", "Beta", "Gamma"), titles(views.list(SortOrder.TitleAZ, false)));
+
+        // edited in place: the view only moves it once told
+        b.updateTitle("Zeta");
+        views.noteChanged(b);
+        assertEquals("Zeta", views.list(SortOrder.LastModified, false).get(0).getTitle());
+        assertEquals(List.of("Beta", "Gamma", "Zeta"), titles(views.list(SortOrder.TitleAZ, false)));
+
+        a.markDeleted(Instant.parse("2025-02-01T00:00:00Z"));
+        views.noteChanged(a);
+        assertEquals(List.of("Gamma", "Zeta"), titles(views.list(SortOrder.TitleAZ, false)));
+        assertEquals(List.of("Beta"), titles(views.list(SortOrder.TitleAZ, true)));
+
+        views.notePurged("1");
+        assertEquals(0, views.size(true));
+        assertEquals(List.of("Zeta"), titles(views.page(SortOrder.LastModified, false, 1)));
+    }
+
+    @Test
+    void list_matchesFullSort() {
+        var pref = new SortPreference(Locale.ROOT);
+        var views = new SortedNoteViews(pref);
+        var notes = new ArrayList<Note>();
+        var random = new Random(7);
+        Instant base = Instant.parse("2025-01-01T00:00:00Z");
+        for (int i = 0; i < 2_000; i++) {
+            // coarse timestamps and titles so ties are common
+            Instant created = base.plusSeconds(60L * random.nextInt(100));
+            Instant updated = created.plusSeconds(60L * random.nextInt(100));
+            Note note = new Note("id" + i, "title " + random.nextInt(50), "", created, updated, null);
+            notes.add(note);
+            views.noteChanged(note);
+        }
+        for (SortOrder order : SortOrder.values()) {
+            pref.setSortOrder(order);
+            assertEquals(pref.apply(notes), views.list(order, false));
+            assertEquals(pref.apply(notes).subList(0, 10), views.page(order, false, 10));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.notes.ui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+class ListDiffTest {
+
+    private record Item(String id, int version) {
+    }
+
+    private static List<String> ids(int from, int to) {
+        List<String> ids = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            ids.add("n" + i);
+        }
+        return ids;
+    }
+
+    // counts the change events a ListView would see
+    private static int[] countChanges(ObservableList<?> list) {
+        int[] changes = new int[1];
+        list.addListener((ListChangeListener<Object>) c -> {
+            while (c.next()) {
+                changes[0]++;
+            }
+        });
+        return changes;
+    }
+
+    @Test
+    void identicalList_firesNothing() {
+        ObservableList<String> shown = FXCollections.observableArrayList(ids(0, 1000));
+        int[] changes = countChanges(shown);
+
+        assertEquals(0, ListDiff.apply(shown, new ArrayList<>(shown), Function.identity()));
+        assertEquals(0, changes[0]);
+    }
+
+    @Test
+    void editedNoteMovedToTop_isOneRemoveAndOneInsert() {
+        ObservableList<String> shown = FXCollections.observableArrayList(ids(0, 1000));
+        int[] changes = countChanges(shown);
+        List<String> next = new ArrayList<>(shown);
+        next.remove("n500");
+        next.add(0, "n500");
+
+        assertEquals(2, ListDiff.apply(shown, next, Function.identity()));
+        assertEquals(next, shown);
+        assertEquals(2, changes[0]);
+    }
+
+    @Test
+    void insertsAndRemovals_touchOnlyChangedRows() {
+        ObservableList<String> shown = FXCollections.observableArrayList(ids(0, 100));
+        int[] changes = countChanges(shown);
+        List<String> next = new ArrayList<>(shown);
+        next.add(0, "new");
+        next.subList(40, 45).clear();
+        next.remove("n99");
+
+        ListDiff.apply(shown, next, Function.identity());
+        assertEquals(next, shown);
+        assertEquals(3, changes[0]);
+    }
+
+    @Test
+    void sameKeyNewInstance_isReplacedInPlace() {
+        List<Item> shown = new ArrayList<>(List.of(new Item("a", 1), new Item("b", 1), new Item("c", 1)));
+        Item newB = new Item("b", 2);
+
+        assertEquals(1, ListDiff.apply(shown, List.of(shown.get(0), newB, shown.get(2)), Item::id));
+        assertSame(newB, shown.get(1));
+    }
+
+    @Test
+    void reversedList_keepsOneRowAndMovesTheRest() {
+        List<String> shown = new ArrayList<>(ids(0, 10));
+        List<String> next = ids(0, 10);
+        Collections.reverse(next);
+
+        ListDiff.apply(shown, next, Function.identity());
+        assertEquals(next, shown);
+    }
+
+    @Test
+    void randomEdits_alwaysEndEqualToSource() {
+        Random random = new Random(43);
+        for (int round = 0; round < 500; round++) {
+            List<String> before = ids(0, random.nextInt(40));
+            List<String> after = new ArrayList<>(before);
+            Collections.shuffle(after.subList(0, random.nextInt(after.size() + 1)), random);
+            for (int k = random.nextInt(5); k > 0 && !after.isEmpty(); k--) {
+                after.remove(random.nextInt(after.size()));
+            }
+            for (int k = random.nextInt(5); k > 0; k--) {
+                after.add(random.nextInt(after.size() + 1), "x" + round + "_" + k);
+            }
+
+            List<String> shown = new ArrayList<>(before);
+            ListDiff.apply(shown, after, Function.identity());
+            assertEquals(after, shown, "round " + round);
+        }
+    }
+}